@@ -27,6 +27,7 @@ public class ApiRequest extends RunnableStage {
 	private int status; // 0 otherwise 
 	private long inDataSize; //-1 otherwise
 	private long outDataSize;//-1 otherwise
+	private long headersNanos = -1; //start => response headers (end : last byte), -1 otherwise
 	
 	@Override
 	public String getLocation() {
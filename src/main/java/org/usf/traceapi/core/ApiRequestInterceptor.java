@@ -1,6 +1,6 @@
 package org.usf.traceapi.core;
 
-import static java.time.Instant.now;
+import static java.lang.System.nanoTime;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
@@ -12,6 +12,7 @@ import static org.usf.traceapi.core.Helper.localTrace;
 import static org.usf.traceapi.core.Helper.log;
 import static org.usf.traceapi.core.Helper.threadName;
 import static org.usf.traceapi.core.Helper.warnNoSession;
+import static org.usf.traceapi.core.TraceClock.clock;
 
 import java.io.IOException;
 
@@ -42,7 +43,7 @@ public final class ApiRequestInterceptor implements ClientHttpRequestInterceptor
 		var out = new ApiRequest();
 		ClientHttpResponse res = null; 
 		Throwable ex = null;
-		var beg = now();
+		var beg = nanoTime();
 		try {
 			res = execution.execute(request, body);
 		}
@@ -51,7 +52,7 @@ public final class ApiRequestInterceptor implements ClientHttpRequestInterceptor
 			throw e;
 		}
 		finally {
-			var fin = now();
+			var fin = nanoTime();
 			try {
 				out.setMethod(request.getMethod().name());
 				out.setProtocol(request.getURI().getScheme());
@@ -60,19 +61,26 @@ public final class ApiRequestInterceptor implements ClientHttpRequestInterceptor
 				out.setPath(request.getURI().getPath());
 				out.setQuery(request.getURI().getQuery());
 				out.setAuthScheme(extractAuthScheme(request.getHeaders().get(AUTHORIZATION)));
-				out.setStart(beg);
-				out.setEnd(fin);
+				out.start(clock(session), beg);
+				out.end(fin);
 				out.setOutDataSize(nonNull(body) ? body.length : 0);
 				out.setException(mainCauseException(ex));
 				out.setThreadName(threadName());
 				if(nonNull(res)) {
 					out.setStatus(res.getStatusCode().value());
-					out.setInDataSize(res.getBody().available()); //not exact !?
+					out.setHeadersNanos(fin - beg);
+					out.setInDataSize(-1); //body not read yet
 					out.setContentType(ofNullable(res.getHeaders().getContentType()).map(MediaType::getType).orElse(null));
 					out.setId(ofNullable(res.getHeaders().getFirst(TRACE_HEADER)).orElse(null)); //+ send api_name !?
 //					setUser!
 				}
 				session.append(out);
+				if(nonNull(res)) {
+					res = new CountingClientHttpResponse(res, n-> { //differed end : last byte
+						out.end(nanoTime());
+						out.setInDataSize(n);
+					});
+				}
 			}
 			catch(Exception e) {
 				log.warn("error while tracing : " + request, e);
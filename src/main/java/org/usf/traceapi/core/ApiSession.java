@@ -1,6 +1,5 @@
 package org.usf.traceapi.core;
 
-import static java.util.Collections.synchronizedCollection;
 import static java.util.Objects.nonNull;
 
 import java.util.Collection;
@@ -22,15 +21,17 @@ import lombok.Setter;
 @Getter
 @Setter
 @JsonTypeName("api")
-@JsonIgnoreProperties({"location", "lock"})
+@JsonIgnoreProperties({"location", "lock", "emitted"})
 public final class ApiSession extends ApiRequest implements Session { //IncomingRequest
 
 	private ApplicationInfo application;
+	private double sampleRate = 1;
 	private final Collection<ApiRequest> requests;
 	private final Collection<DatabaseRequest> queries;
 	private final Collection<RunnableStage> stages;
 	
 	private final AtomicInteger lock = new AtomicInteger();
+	private volatile boolean emitted;
 	
 	public ApiSession() {
 		this(new LinkedList<>(), new LinkedList<>(), new LinkedList<>());
@@ -64,11 +65,11 @@ public final class ApiSession extends ApiRequest implements Session { //Incoming
 		stages.add(stage);
 	}
 	
-	static ApiSession synchronizedApiSession(String id) {
+	static ApiSession concurrentApiSession(String id) {
 		var ss = new ApiSession(
-				synchronizedCollection(new LinkedList<>()), 
-				synchronizedCollection(new LinkedList<>()), 
-				synchronizedCollection(new LinkedList<>()));
+				new AppendOnlyCollection<>(), 
+				new AppendOnlyCollection<>(), 
+				new AppendOnlyCollection<>()); //lock-free appends
 		ss.setId(id);	
 		return ss;
 	}	
@@ -1,71 +1,82 @@
 package org.usf.traceapi.core;
 
-import static java.lang.String.join;
+import static java.lang.Boolean.TRUE;
 import static java.net.URI.create;
-import static java.time.Instant.now;
+import static java.lang.System.nanoTime;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static java.util.function.Predicate.not;
-import static java.util.stream.Collectors.joining;
 import static org.springframework.http.HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS;
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
-import static org.springframework.web.servlet.HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE;
-import static org.usf.traceapi.core.ApiSession.synchronizedApiSession;
+import static org.usf.traceapi.core.ApiSession.concurrentApiSession;
 import static org.usf.traceapi.core.ExceptionInfo.mainCauseException;
+import static org.usf.traceapi.core.HeadSampler.sample;
 import static org.usf.traceapi.core.Helper.applicationInfo;
 import static org.usf.traceapi.core.Helper.extractAuthScheme;
 import static org.usf.traceapi.core.Helper.localTrace;
 import static org.usf.traceapi.core.Helper.log;
 import static org.usf.traceapi.core.Helper.newInstance;
 import static org.usf.traceapi.core.Helper.threadName;
+import static org.usf.traceapi.core.Helper.unsampled;
 import static org.usf.traceapi.core.Helper.warnNoSession;
 import static org.usf.traceapi.core.Session.nextId;
 import static org.usf.traceapi.core.StageUpdater.getUser;
+import static org.usf.traceapi.core.TraceClock.anchor;
 import static org.usf.traceapi.core.TraceMultiCaster.emit;
 
 import java.io.IOException;
-import java.util.Map;
-import java.util.stream.Collector;
-import java.util.stream.Stream;
 
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 
 /**
  * 
  * @author u$f 
  *
  */
-@RequiredArgsConstructor
 public final class ApiSessionFilter extends OncePerRequestFilter implements HandlerInterceptor {
 	
-	static final Collector<CharSequence, ?, String> joiner = joining("_");
-
 	static final String TRACE_HEADER = "x-tracert";
 	
-	private final String[] excludeUrlPatterns;
+	static final String EXCLUDED = ApiSessionFilter.class.getName() + ".excluded"; //shared with interceptor
+	
+	private final ExclusionMatcher excludes;
 	
-	private final AntPathMatcher matcher = new AntPathMatcher();
+	private final HeadSampler sampler;
+	
+	private final EndpointResolver endpoints = new EndpointResolver();
+	
+	public ApiSessionFilter(String[] excludeUrlPatterns, HeadSampler sampler) {
+		this.excludes = new ExclusionMatcher(excludeUrlPatterns);
+		this.sampler = sampler;
+	}
 	
 	@Override
 	protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain filterChain) throws IOException, ServletException {
-    	var in = synchronizedApiSession(nextId());
+		var rate = sampler.rate(req.getServletPath());
+		if(!sample(rate)) {
+			unsampled.set(TRUE);
+			try {
+				filterChain.doFilter(req, res); //no session
+			}
+			finally {
+				unsampled.remove();
+			}
+			return;
+		}
+    	var in = concurrentApiSession(nextId());
+    	in.setSampleRate(rate);
     	log.trace("incoming request : {} <= {}", in.getId(), req.getRequestURI());
     	localTrace.set(in);
 		res.addHeader(TRACE_HEADER, in.getId());
 		res.addHeader(ACCESS_CONTROL_EXPOSE_HEADERS, TRACE_HEADER);
-		var cRes = new ContentCachingResponseWrapper(res);
+		var cRes = new CountingResponseWrapper(res);
 		Throwable ex = null;
-    	var beg = now();
+    	in.start(anchor(), nanoTime()); //shared anchor
     	try {
     		filterChain.doFilter(req, cRes);
     	}
@@ -74,7 +85,7 @@ public final class ApiSessionFilter extends OncePerRequestFilter implements Hand
     		throw e;
     	}
     	finally {
-    		var fin = now();
+    		in.end(nanoTime());
     		try {
 	    		var uri = create(req.getRequestURL().toString());
 	    		in.setMethod(req.getMethod());
@@ -88,8 +99,6 @@ public final class ApiSessionFilter extends OncePerRequestFilter implements Hand
 				in.setAuthScheme(extractAuthScheme(req.getHeader(AUTHORIZATION)));
 				in.setInDataSize(req.getContentLength());
 				in.setOutDataSize(cRes.getContentSize());
-	    		in.setStart(beg);
-	    		in.setEnd(fin);
     			in.setThreadName(threadName());
     			in.setApplication(applicationInfo());
         		if(nonNull(ex) && isNull(in.getException())) { //already set in TraceableAspect::aroundAdvice
@@ -104,50 +113,43 @@ public final class ApiSessionFilter extends OncePerRequestFilter implements Hand
     		}
 			localTrace.remove();
 		}
-		cRes.copyBodyToResponse();
 	}
 	
 	@Override
 	protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
-		return nonNull(excludeUrlPatterns) && Stream.of(excludeUrlPatterns)
-		        .anyMatch(p -> matcher.match(p, request.getServletPath()));
+		return isExcluded(request);
+	}
+	
+	boolean isExcluded(HttpServletRequest req) { //once per request
+		var v = req.getAttribute(EXCLUDED);
+		if(isNull(v)) {
+			v = excludes.test(req.getServletPath());
+			req.setAttribute(EXCLUDED, v);
+		}
+		return TRUE.equals(v);
 	}
 	
     @Override
     public void afterCompletion(HttpServletRequest req, HttpServletResponse res, Object handler, Exception ex) throws Exception {
     	var in = (ApiSession) localTrace.get();
         if(isNull(in)) {
-        	warnNoSession();
+        	if(!isExcluded(req)) {
+        		warnNoSession();
+        	}
         }
         else {
-			in.setName(defaultEndpointName(req));
+        	var stage = endpoints.stage(handler);
+			in.setName(nonNull(stage.name()) ? stage.name() : endpoints.name(req));
         	in.setUser(getUser(req));
         	if(nonNull(ex) && isNull(in.getException())) {//already set with Aspect
         		in.setException(mainCauseException(ex));
         	}
-	        if(handler instanceof HandlerMethod hm) {//important! !static resource 
-	        	TraceableStage a = hm.getMethodAnnotation(TraceableStage.class);
-	            if(nonNull(a)) {
-	            	if(!a.value().isBlank()) {
-	        			in.setName(a.value());
-	            	}
-	            	if(a.sessionUpdater() != StageUpdater.class) {
-	            		newInstance(a.sessionUpdater())
-	            		.ifPresent(u-> u.update(in, req));
-	            	}
-	            	//no location
-                }
-            }
+        	if(nonNull(stage.updater())) {
+        		newInstance(stage.updater())
+        		.ifPresent(u-> u.update(in, req));
+        	}
+        	//no location
         }
     }
-
-	@SuppressWarnings("unchecked")
-	private static String defaultEndpointName(HttpServletRequest req) {
-		var arr = req.getRequestURI().substring(1).split("/");
-		var map = (Map<String, String>) req.getAttribute(URI_TEMPLATE_VARIABLES_ATTRIBUTE);
-		return map == null ? join("_", arr) : Stream.of(arr)
-				.filter(not(map.values()::contains))
-				.collect(joiner);
-	}
 	
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package org.usf.traceapi.core;
+
+import static java.lang.Integer.numberOfLeadingZeros;
+import static java.util.Objects.isNull;
+import static java.util.Objects.requireNonNull;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free append-only collection : array segments of doubling size (16, 32, 64, ..) created on demand by CAS.
+ * {@link #add(Object)} reserves a slot then publishes the element, iteration skips slots reserved but not yet published
+ * (exact once appends are over, i.e. session completed). No removal.
+ *
+ * @author u$f
+ *
+ */
+final class AppendOnlyCollection<T> extends AbstractCollection<T> {
+
+	private static final int FIRST_BITS = 4; //first segment : 16 elements
+	private static final int MAX_SIZE = Integer.MAX_VALUE - (1 << FIRST_BITS);
+
+	private final AtomicReferenceArray<AtomicReferenceArray<T>> segments = new AtomicReferenceArray<>(Integer.SIZE - FIRST_BITS);
+	private final AtomicInteger size = new AtomicInteger();
+
+	@Override
+	public boolean add(T o) {
+		requireNonNull(o); //null : not published
+		var idx = size.getAndIncrement();
+		if(idx < 0 || idx >= MAX_SIZE) {
+			throw new IllegalStateException("collection is full");
+		}
+		segment(idx).lazySet(offset(idx), o); //volatile read on iteration
+		return true;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<>() {
+
+			private final int end = size.get(); //snapshot
+			private int idx = -1;
+			private T next = advance();
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public T next() {
+				if(isNull(next)) {
+					throw new NoSuchElementException();
+				}
+				var v = next;
+				next = advance();
+				return v;
+			}
+
+			private T advance() {
+				while(++idx < end) {
+					var seg = segments.get(index(idx));
+					var v = isNull(seg) ? null : seg.get(offset(idx));
+					if(v != null) {
+						return v;
+					}
+				}
+				return null;
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return size.get();
+	}
+
+	private AtomicReferenceArray<T> segment(int idx) {
+		var i = index(idx);
+		var seg = segments.get(i);
+		if(isNull(seg)) {
+			segments.compareAndSet(i, null, new AtomicReferenceArray<>(1 << (i + FIRST_BITS)));
+			seg = segments.get(i); //winner
+		}
+		return seg;
+	}
+
+	static int index(int idx) {
+		return Integer.SIZE - 1 - numberOfLeadingZeros(idx + (1 << FIRST_BITS)) - FIRST_BITS;
+	}
+
+	static int offset(int idx) {
+		var j = idx + (1 << FIRST_BITS);
+		return j - Integer.highestOneBit(j);
+	}
+}
@@ -0,0 +1,164 @@
+package org.usf.traceapi.core;
+
+import static java.net.http.HttpClient.Version.HTTP_2;
+import static java.net.http.HttpRequest.BodyPublishers.ofInputStream;
+import static java.net.http.HttpResponse.BodyHandlers.discarding;
+import static java.time.Duration.ofSeconds;
+import static java.util.Objects.isNull;
+import static org.usf.traceapi.core.Samplers.sessionFilter;
+import static org.usf.traceapi.core.SessionCodec.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
+
+import org.usf.traceapi.core.SessionCodec.SessionWriter;
+
+/**
+ * Non-blocking alternative to {@link RemoteTraceSender} : batches are streamed
+ * with {@link HttpClient#sendAsync}, several batches share one HTTP/2 connection.
+ *
+ * @author u$f
+ *
+ */
+public final class AsyncTraceSender implements TraceHandler {
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	private final TraceConfigurationProperties properties;
+	private final HttpClient client;
+	private final SessionCodec codec;
+	private final URI uri;
+	private final ScheduledSessionDispatcher dispatcher;
+
+	public AsyncTraceSender(TraceConfigurationProperties properties) {
+		this(properties, createHttpClient());
+	}
+
+	public AsyncTraceSender(TraceConfigurationProperties prop, HttpClient client) {
+		this(prop, client, codec(prop.getFormat()));
+	}
+
+	public AsyncTraceSender(TraceConfigurationProperties prop, HttpClient client, SessionCodec codec) {
+		this.properties = prop;
+		this.client = client;
+		this.codec = codec;
+		this.uri = URI.create(prop.getUrl());
+		this.dispatcher = new ScheduledSessionDispatcher(prop, sessionFilter(prop), this::sendCompleted);
+	}
+
+	@Override
+	public void handle(Session session) {
+		dispatcher.add(session);
+	}
+
+	@Override
+	public void complete(Session session) {
+		dispatcher.complete(session);
+	}
+	
+	@Override
+	public void shutdown() throws InterruptedException {
+		dispatcher.shutdown();
+	}
+
+	private CompletableFuture<Boolean> sendCompleted(int attemps, List<? extends Session> sessions) {
+		var req = HttpRequest.newBuilder(uri)
+				.header("Content-Type", codec.getContentType())
+				.timeout(ofSeconds(30))
+				.PUT(ofInputStream(()-> new SessionInputStream(codec, sessions, properties.isCompress())));
+		if(properties.isCompress()) {
+			req.header("Content-Encoding", "gzip");
+		}
+		return client.sendAsync(req.build(), discarding()).thenApply(res-> {
+			if(res.statusCode() / 100 != 2) {
+				throw new IllegalStateException(res.statusCode() + " : " + uri);
+			}
+			return true;
+		});
+	}
+
+	private static HttpClient createHttpClient() {
+		return HttpClient.newBuilder()
+				.version(HTTP_2) //fallback to HTTP/1.1
+				.connectTimeout(ofSeconds(30))
+				.build();
+	}
+
+	/**
+	 * encodes sessions on demand : the payload is never materialized
+	 */
+	static final class SessionInputStream extends InputStream {
+
+		private final Iterator<? extends Session> it;
+		private final Buffer buffer = new Buffer();
+		private final OutputStream target; //nullable : gzip
+		private SessionWriter writer;
+		private int pos;
+
+		SessionInputStream(SessionCodec codec, List<? extends Session> sessions, boolean compress) {
+			this.it = sessions.iterator();
+			try {
+				this.target = compress ? new GZIPOutputStream(buffer, BUFFER_SIZE) : null;
+				this.writer = codec.writer(compress ? target : buffer);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public int read() throws IOException {
+			var b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			while(pos == buffer.size()) {
+				if(isNull(writer)) {
+					return -1;
+				}
+				buffer.reset();
+				pos = 0;
+				fill();
+			}
+			var n = Math.min(len, buffer.size() - pos);
+			System.arraycopy(buffer.array(), pos, b, off, n);
+			pos += n;
+			return n;
+		}
+
+		private void fill() throws IOException {
+			if(it.hasNext()) {
+				writer.write(it.next());
+			}
+			else { //end of batch
+				writer.close();
+				if(target instanceof GZIPOutputStream gz) {
+					gz.finish();
+				}
+				writer = null;
+			}
+		}
+	}
+
+	private static final class Buffer extends ByteArrayOutputStream {
+
+		Buffer() {
+			super(BUFFER_SIZE);
+		}
+
+		byte[] array() {
+			return buf;
+		}
+	}
+}
@@ -0,0 +1,619 @@
+package org.usf.traceapi.core;
+
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.floorMod;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary session batch format :
+ * <pre>
+ * batch   : MAGIC VERSION (TAG session)* END
+ * integer : unsigned LEB128 varint, zigzag encoded when signed
+ * nullable: 0 = null, value+1 otherwise (string length, list size, enum ordinal, timestamp)
+ * instant : epoch micros, end = delta from start
+ * symbol  : repeated metadata, 0 = null, 1 = new dictionary entry (string), index+2 otherwise
+ * rate    : session sample rate, 1 - rate in millionths
+ * headers : time to response headers, signed nanos
+ * </pre>
+ * The symbol dictionary is built while writing and lives for one batch only.
+ * Lengths &amp; sizes are bounded on read : corrupted data fails with {@link StreamCorruptedException}, never allocates.
+ *
+ * @author u$f
+ *
+ */
+public final class BinarySessionCodec implements SessionCodec {
+
+	public static final String CONTENT_TYPE = "application/vnd.traceapi+binary";
+
+	static final byte[] MAGIC = {'T', 'R'};
+	static final byte VERSION = 1;
+	static final byte END = 0;
+	static final byte API = 1;
+	static final byte MAIN = 2;
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+	private static final long RATE_SCALE = 1_000_000;
+	static final int MAX_STRING = 1 << 24; //bytes
+	static final int MAX_SIZE = 1 << 20; //elements
+
+	private static final JDBCAction[] JDBC_ACTIONS = JDBCAction.values();
+	private static final SqlCommand[] SQL_COMMANDS = SqlCommand.values();
+	private static final LaunchMode[] LAUNCH_MODES = LaunchMode.values();
+
+	@Override
+	public String getContentType() {
+		return CONTENT_TYPE;
+	}
+
+	@Override
+	public SessionWriter writer(OutputStream out) throws IOException {
+		var w = new Writer(out);
+		w.writeHeader();
+		return w;
+	}
+
+	@Override
+	public List<Session> read(InputStream in) throws IOException {
+		return new Reader(in).readBatch();
+	}
+
+	static final class Writer implements SessionWriter {
+
+		private final OutputStream out;
+		private final byte[] buf = new byte[BUFFER_SIZE];
+		private final Map<String, Integer> symbols = new HashMap<>();
+		private int pos;
+
+		Writer(OutputStream out) {
+			this.out = out;
+		}
+
+		void writeHeader() throws IOException {
+			writeBytes(MAGIC, MAGIC.length);
+			writeByte(VERSION);
+		}
+
+		@Override
+		public void write(Session session) throws IOException {
+			if(session instanceof ApiSession s) {
+				writeByte(API);
+				writeApiSession(s);
+			}
+			else if(session instanceof MainSession s) {
+				writeByte(MAIN);
+				writeMainSession(s);
+			}
+			else {
+				throw new IllegalArgumentException("unsupported session type : " + session.getClass());
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			writeByte(END);
+			flush(); //do not close target
+			out.flush();
+		}
+
+		void writeApiSession(ApiSession s) throws IOException {
+			writeApiRequest(s);
+			writeApplication(s.getApplication());
+			writeRate(s.getSampleRate());
+			writeChildren(s);
+		}
+
+		void writeMainSession(MainSession s) throws IOException {
+			writeStage(s);
+			writeString(s.getId());
+			writeEnum(s.getLaunchMode());
+			writeApplication(s.getApplication());
+			writeRate(s.getSampleRate());
+			writeChildren(s);
+		}
+
+		void writeChildren(Session s) throws IOException {
+			writeSize(s.getRequests());
+			for(var r : s.getRequests()) {
+				writeApiRequest(r);
+			}
+			writeSize(s.getQueries());
+			for(var q : s.getQueries()) {
+				writeDatabaseRequest(q);
+			}
+			writeSize(s.getStages());
+			for(var st : s.getStages()) {
+				writeStage(st);
+			}
+		}
+
+		void writeStage(RunnableStage s) throws IOException {
+			writeMetric(s.getName(), s.getLocation(), s.getStart(), s.getEnd(), s.getUser(), s.getThreadName());
+			writeException(s.getException());
+		}
+
+		void writeApiRequest(ApiRequest r) throws IOException {
+			writeMetric(r.getName(), null, r.getStart(), r.getEnd(), r.getUser(), r.getThreadName()); //no location
+			writeException(r.getException());
+			writeString(r.getId());
+			writeSymbol(r.getMethod());
+			writeSymbol(r.getProtocol());
+			writeSymbol(r.getHost());
+			writeSignedVarLong(r.getPort());
+			writeString(r.getPath());
+			writeString(r.getQuery());
+			writeSymbol(r.getContentType());
+			writeSymbol(r.getAuthScheme());
+			writeSignedVarLong(r.getStatus());
+			writeSignedVarLong(r.getInDataSize());
+			writeSignedVarLong(r.getOutDataSize());
+			writeSignedVarLong(r.getHeadersNanos());
+		}
+
+		void writeDatabaseRequest(DatabaseRequest q) throws IOException {
+			writeMetric(q.getName(), q.getLocation(), q.getStart(), q.getEnd(), q.getUser(), q.getThreadName()); //no exception
+			writeSymbol(q.getHost());
+			writeVarLong(isNull(q.getPort()) ? 0 : zigzag(q.getPort()) + 1);
+			writeSymbol(q.getDatabase());
+			writeSymbol(q.getDriverVersion());
+			writeSymbol(q.getDatabaseName());
+			writeSymbol(q.getDatabaseVersion());
+			writeSize(q.getActions());
+			if(nonNull(q.getActions())) {
+				for(var a : q.getActions()) {
+					writeEnum(a.getType());
+					writeInstant(a.getStart());
+					writeEnd(a.getStart(), a.getEnd());
+					writeException(a.getException());
+					writeCount(a.getCount());
+				}
+			}
+			writeSize(q.getCommands());
+			if(nonNull(q.getCommands())) {
+				for(var c : q.getCommands()) {
+					writeEnum(c);
+				}
+			}
+		}
+
+		void writeMetric(String name, String location, Instant start, Instant end, String user, String threadName) throws IOException {
+			writeSymbol(name);
+			writeSymbol(location);
+			writeInstant(start);
+			writeEnd(start, end);
+			writeSymbol(user);
+			writeSymbol(threadName);
+		}
+
+		void writeRate(double rate) throws IOException {
+			writeVarLong(RATE_SCALE - Math.round(Math.min(1, Math.max(0, rate)) * RATE_SCALE)); //1 byte when unsampled
+		}
+
+		void writeApplication(ApplicationInfo app) throws IOException {
+			writeByte(isNull(app) ? 0 : 1);
+			if(nonNull(app)) {
+				writeSymbol(app.getName());
+				writeSymbol(app.getVersion());
+				writeSymbol(app.getAddress());
+				writeSymbol(app.getEnv());
+				writeSymbol(app.getOs());
+				writeSymbol(app.getRe());
+			}
+		}
+
+		void writeException(ExceptionInfo ex) throws IOException {
+			writeByte(isNull(ex) ? 0 : 1);
+			if(nonNull(ex)) {
+				writeSymbol(ex.getClassname());
+				writeString(ex.getMessage());
+			}
+		}
+
+		void writeCount(long[] arr) throws IOException {
+			writeVarLong(isNull(arr) ? 0 : arr.length + 1L);
+			if(nonNull(arr)) {
+				for(var v : arr) {
+					writeSignedVarLong(v);
+				}
+			}
+		}
+
+		void writeInstant(Instant v) throws IOException {
+			writeVarLong(isNull(v) ? 0 : zigzag(micros(v)) + 1);
+		}
+
+		void writeEnd(Instant start, Instant end) throws IOException {
+			if(isNull(start)) {
+				writeInstant(end);
+			}
+			else {
+				writeVarLong(isNull(end) ? 0 : zigzag(micros(end) - micros(start)) + 1);
+			}
+		}
+
+		void writeEnum(Enum<?> v) throws IOException {
+			writeVarLong(isNull(v) ? 0 : v.ordinal() + 1L);
+		}
+
+		void writeSize(Collection<?> c) throws IOException {
+			writeVarLong(isNull(c) ? 0 : c.size() + 1L);
+		}
+
+		void writeSymbol(String s) throws IOException {
+			if(isNull(s)) {
+				writeVarLong(0);
+			}
+			else {
+				var idx = symbols.putIfAbsent(s, symbols.size());
+				if(isNull(idx)) { //first occurrence
+					writeVarLong(1);
+					writeString(s);
+				}
+				else {
+					writeVarLong(idx + 2L);
+				}
+			}
+		}
+
+		void writeString(String s) throws IOException {
+			if(isNull(s)) {
+				writeVarLong(0);
+			}
+			else {
+				var b = s.getBytes(UTF_8);
+				writeVarLong(b.length + 1L);
+				writeBytes(b, b.length);
+			}
+		}
+
+		void writeSignedVarLong(long v) throws IOException {
+			writeVarLong(zigzag(v));
+		}
+
+		void writeVarLong(long v) throws IOException {
+			ensure(10);
+			while((v & ~0x7FL) != 0) {
+				buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+				v >>>= 7;
+			}
+			buf[pos++] = (byte) v;
+		}
+
+		void writeByte(int b) throws IOException {
+			ensure(1);
+			buf[pos++] = (byte) b;
+		}
+
+		void writeBytes(byte[] b, int len) throws IOException {
+			if(len > buf.length) {
+				flush();
+				out.write(b, 0, len);
+			}
+			else {
+				ensure(len);
+				System.arraycopy(b, 0, buf, pos, len);
+				pos += len;
+			}
+		}
+
+		private void ensure(int n) throws IOException {
+			if(pos + n > buf.length) {
+				flush();
+			}
+		}
+
+		private void flush() throws IOException {
+			if(pos > 0) {
+				out.write(buf, 0, pos);
+				pos = 0;
+			}
+		}
+	}
+
+	static final class Reader {
+
+		private final InputStream in;
+		private final byte[] buf = new byte[BUFFER_SIZE];
+		private final List<String> symbols = new ArrayList<>();
+		private int pos;
+		private int lim;
+
+		Reader(InputStream in) {
+			this.in = in;
+		}
+
+		List<Session> readBatch() throws IOException {
+			readHeader();
+			var list = new ArrayList<Session>();
+			for(int tag; (tag = readByte()) != END;) {
+				list.add(switch (tag) {
+				case API -> readApiSession();
+				case MAIN -> readMainSession();
+				default -> throw new StreamCorruptedException("unknown session tag : " + tag);
+				});
+			}
+			return list;
+		}
+
+		void readHeader() throws IOException {
+			if(readByte() != MAGIC[0] || readByte() != MAGIC[1]) {
+				throw new StreamCorruptedException("bad magic number");
+			}
+			var version = readByte();
+			if(version != VERSION) {
+				throw new StreamCorruptedException("unsupported version : " + version);
+			}
+		}
+
+		ApiSession readApiSession() throws IOException {
+			var s = new ApiSession();
+			readApiRequest(s);
+			s.setApplication(readApplication());
+			s.setSampleRate(readRate());
+			readChildren(s);
+			return s;
+		}
+
+		MainSession readMainSession() throws IOException {
+			var s = new MainSession();
+			readStage(s);
+			s.setId(readString());
+			s.setLaunchMode(readEnum(LAUNCH_MODES));
+			s.setApplication(readApplication());
+			s.setSampleRate(readRate());
+			readChildren(s);
+			return s;
+		}
+
+		void readChildren(Session s) throws IOException {
+			for(var i=readSize(); i>0; i--) {
+				var r = new ApiRequest();
+				readApiRequest(r);
+				s.append(r);
+			}
+			for(var i=readSize(); i>0; i--) {
+				s.append(readDatabaseRequest());
+			}
+			for(var i=readSize(); i>0; i--) {
+				var st = new RunnableStage();
+				readStage(st);
+				s.append(st);
+			}
+		}
+
+		void readStage(RunnableStage s) throws IOException {
+			s.setName(readSymbol());
+			s.setLocation(readSymbol());
+			readPeriod(s);
+			s.setUser(readSymbol());
+			s.setThreadName(readSymbol());
+			s.setException(readException());
+		}
+
+		void readApiRequest(ApiRequest r) throws IOException {
+			r.setName(readSymbol());
+			readSymbol(); //no location
+			readPeriod(r);
+			r.setUser(readSymbol());
+			r.setThreadName(readSymbol());
+			r.setException(readException());
+			r.setId(readString());
+			r.setMethod(readSymbol());
+			r.setProtocol(readSymbol());
+			r.setHost(readSymbol());
+			r.setPort((int) readSignedVarLong());
+			r.setPath(readString());
+			r.setQuery(readString());
+			r.setContentType(readSymbol());
+			r.setAuthScheme(readSymbol());
+			r.setStatus((int) readSignedVarLong());
+			r.setInDataSize(readSignedVarLong());
+			r.setOutDataSize(readSignedVarLong());
+			r.setHeadersNanos(readSignedVarLong());
+		}
+
+		DatabaseRequest readDatabaseRequest() throws IOException {
+			var q = new DatabaseRequest();
+			q.setName(readSymbol());
+			q.setLocation(readSymbol());
+			readPeriod(q);
+			q.setUser(readSymbol());
+			q.setThreadName(readSymbol());
+			q.setHost(readSymbol());
+			var port = readVarLong();
+			q.setPort(port == 0 ? null : (int) unzigzag(port - 1));
+			q.setDatabase(readSymbol());
+			q.setDriverVersion(readSymbol());
+			q.setDatabaseName(readSymbol());
+			q.setDatabaseVersion(readSymbol());
+			var n = readSize();
+			if(n > -1) {
+				var actions = new ArrayList<DatabaseAction>(Math.min(n, BUFFER_SIZE)); //grows with actual data
+				for(var i=0; i<n; i++) {
+					var type = readEnum(JDBC_ACTIONS);
+					var start = readInstant();
+					var end = readEnd(start);
+					actions.add(new DatabaseAction(type, start, end, readException(), readCount()));
+				}
+				q.setActions(actions);
+			}
+			n = readSize();
+			if(n > -1) {
+				var commands = new ArrayList<SqlCommand>(Math.min(n, BUFFER_SIZE));
+				for(var i=0; i<n; i++) {
+					commands.add(readEnum(SQL_COMMANDS));
+				}
+				q.setCommands(commands);
+			}
+			return q;
+		}
+
+		void readPeriod(RunnableStage s) throws IOException {
+			s.setStart(readInstant());
+			s.setEnd(readEnd(s.getStart()));
+		}
+
+		double readRate() throws IOException {
+			var v = readVarLong();
+			if(v < 0 || v > RATE_SCALE) {
+				throw new StreamCorruptedException("invalid sample rate : " + v);
+			}
+			return (RATE_SCALE - v) / (double) RATE_SCALE;
+		}
+
+		ApplicationInfo readApplication() throws IOException {
+			return readByte() == 0 ? null : new ApplicationInfo(
+					readSymbol(), readSymbol(), readSymbol(),
+					readSymbol(), readSymbol(), readSymbol());
+		}
+
+		ExceptionInfo readException() throws IOException {
+			return readByte() == 0 ? null : new ExceptionInfo(readSymbol(), readString());
+		}
+
+		long[] readCount() throws IOException {
+			var n = readLength(MAX_SIZE);
+			if(n < 0) {
+				return null;
+			}
+			var arr = new long[n];
+			for(var i=0; i<n; i++) {
+				arr[i] = readSignedVarLong();
+			}
+			return arr;
+		}
+
+		Instant readInstant() throws IOException {
+			var v = readVarLong();
+			return v == 0 ? null : instant(unzigzag(v - 1));
+		}
+
+		Instant readEnd(Instant start) throws IOException {
+			if(isNull(start)) {
+				return readInstant();
+			}
+			var v = readVarLong();
+			return v == 0 ? null : instant(micros(start) + unzigzag(v - 1));
+		}
+
+		<T extends Enum<T>> T readEnum(T[] values) throws IOException {
+			var v = readVarLong();
+			if(v < 0 || v > values.length) {
+				throw new StreamCorruptedException("unknown " + values.getClass().getComponentType().getSimpleName() + " : " + (v - 1));
+			}
+			return v == 0 ? null : values[(int) v - 1];
+		}
+
+		int readSize() throws IOException {
+			return readLength(MAX_SIZE); //-1 : null
+		}
+
+		int readLength(int max) throws IOException { //nullable
+			var v = readVarLong() - 1;
+			if(v < -1 || v > max) {
+				throw new StreamCorruptedException("invalid length : " + v);
+			}
+			return (int) v;
+		}
+
+		String readSymbol() throws IOException {
+			var v = readVarLong();
+			if(v == 0) {
+				return null;
+			}
+			if(v == 1) {
+				var s = readString();
+				symbols.add(s);
+				return s;
+			}
+			if(v > 1 && v - 2 < symbols.size()) {
+				return symbols.get((int) v - 2);
+			}
+			throw new StreamCorruptedException("unknown symbol : " + (v - 2));
+		}
+
+		String readString() throws IOException {
+			var n = readLength(MAX_STRING);
+			if(n < 0) {
+				return null;
+			}
+			if(n <= lim - pos) {
+				var s = new String(buf, pos, n, UTF_8);
+				pos += n;
+				return s;
+			}
+			var b = new byte[n];
+			for(var i=0; i<n;) {
+				if(pos == lim) {
+					fill();
+				}
+				var len = Math.min(n - i, lim - pos);
+				System.arraycopy(buf, pos, b, i, len);
+				pos += len;
+				i += len;
+			}
+			return new String(b, UTF_8);
+		}
+
+		long readSignedVarLong() throws IOException {
+			return unzigzag(readVarLong());
+		}
+
+		long readVarLong() throws IOException {
+			long v = 0;
+			for(var shift=0; shift<64; shift+=7) {
+				var b = readByte();
+				v |= (long)(b & 0x7F) << shift;
+				if((b & 0x80) == 0) {
+					return v;
+				}
+			}
+			throw new StreamCorruptedException("malformed varint");
+		}
+
+		int readByte() throws IOException {
+			if(pos == lim) {
+				fill();
+			}
+			return buf[pos++] & 0xFF;
+		}
+
+		private void fill() throws IOException {
+			lim = in.read(buf, 0, buf.length);
+			pos = 0;
+			if(lim < 1) {
+				lim = 0;
+				throw new EOFException();
+			}
+		}
+	}
+
+	static long micros(Instant v) {
+		return v.getEpochSecond() * 1_000_000 + v.getNano() / 1_000;
+	}
+
+	static Instant instant(long micros) {
+		return Instant.ofEpochSecond(floorDiv(micros, 1_000_000), floorMod(micros, 1_000_000) * 1_000L);
+	}
+
+	static long zigzag(long v) {
+		return (v << 1) ^ (v >> 63);
+	}
+
+	static long unzigzag(long v) {
+		return (v >>> 1) ^ -(v & 1);
+	}
+}
@@ -0,0 +1,70 @@
+package org.usf.traceapi.core;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.ThreadLocalRandom.current;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.usf.traceapi.core.Samplers.hasException;
+import static org.usf.traceapi.core.Samplers.isServerError;
+import static org.usf.traceapi.core.Samplers.perEndpoint;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive sampler targeting {@code budget} sessions per second and per endpoint :
+ * probability = budget / arrival rate (EWMA over 1s windows), failed sessions are always kept.
+ * First window : no estimate yet, the first {@code budget} sessions are kept (token bucket).
+ *
+ * @author u$f
+ *
+ */
+final class BudgetSampler implements SessionSampler {
+
+	static final long WINDOW = SECONDS.toNanos(1);
+	static final double ALPHA = .5; //last window weight
+
+	private final double budget;
+	private final Map<String, Budget> endpoints = new ConcurrentHashMap<>();
+
+	BudgetSampler(double budget) {
+		if(budget <= 0) {
+			throw new IllegalArgumentException("budget=" + budget + " <= 0");
+		}
+		this.budget = budget;
+	}
+
+	@Override
+	public double sample(Session s) {
+		if(hasException(s) || isServerError(s)) {
+			return 1;
+		}
+		var p = perEndpoint(endpoints, s, Budget::new).probability(nanoTime());
+		return p >= 1 || (p > 0 && current().nextDouble() < p) ? Math.min(1, p) : 0;
+	}
+
+	/**
+	 * lock-free : the thread closing the window updates the probability
+	 */
+	final class Budget {
+
+		private final AtomicLong window = new AtomicLong(nanoTime()); //start
+		private final AtomicLong count = new AtomicLong(); //arrivals in window
+		private volatile double rate = -1; //arrivals per second
+		private volatile double probability = 1;
+
+		double probability(long now) {
+			var start = window.get();
+			if(now - start >= WINDOW && window.compareAndSet(start, now)) {
+				var r = count.getAndSet(0) * (double) SECONDS.toNanos(1) / (now - start);
+				rate = rate < 0 ? r : ALPHA * r + (1 - ALPHA) * rate;
+				probability = rate <= budget ? 1 : budget / rate;
+			}
+			var n = count.incrementAndGet();
+			if(rate < 0) { //first window : count still growing
+				return n <= budget ? 1 : 0;
+			}
+			return probability;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package org.usf.traceapi.core;
+
+import static java.util.Objects.isNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Counts body bytes as the caller reads them, {@code onEnd} is called once : last byte read or response closed.
+ * 
+ * @author u$f
+ *
+ */
+final class CountingClientHttpResponse implements ClientHttpResponse {
+
+	private final ClientHttpResponse res;
+	private final LongConsumer onEnd; //read bytes
+	private CountingInputStream body;
+	private boolean ended;
+
+	CountingClientHttpResponse(ClientHttpResponse res, LongConsumer onEnd) {
+		this.res = res;
+		this.onEnd = onEnd;
+	}
+
+	@Override
+	public InputStream getBody() throws IOException {
+		if(isNull(body)) {
+			body = new CountingInputStream(res.getBody());
+		}
+		return body;
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return res.getHeaders();
+	}
+
+	@Override
+	public HttpStatusCode getStatusCode() throws IOException {
+		return res.getStatusCode();
+	}
+
+	@SuppressWarnings("deprecation")
+	@Override
+	public int getRawStatusCode() throws IOException {
+		return res.getRawStatusCode();
+	}
+
+	@Override
+	public String getStatusText() throws IOException {
+		return res.getStatusText();
+	}
+
+	@Override
+	public void close() {
+		try {
+			res.close();
+		}
+		finally {
+			end();
+		}
+	}
+
+	private void end() {
+		if(!ended) {
+			ended = true;
+			onEnd.accept(isNull(body) ? 0 : body.count);
+		}
+	}
+
+	private final class CountingInputStream extends FilterInputStream {
+
+		private long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			var b = super.read();
+			if(b < 0) {
+				end(); //last byte
+			}
+			else {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			var n = super.read(b, off, len);
+			if(n < 0) {
+				end();
+			}
+			else {
+				count += n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			var s = super.skip(n);
+			count += s;
+			return s;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			}
+			finally {
+				end();
+			}
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false; //no double count
+		}
+	}
+}
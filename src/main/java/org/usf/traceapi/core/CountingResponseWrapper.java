@@ -0,0 +1,203 @@
+package org.usf.traceapi.core;
+
+import static java.lang.Character.isSurrogate;
+import static java.nio.charset.Charset.forName;
+import static java.nio.charset.CodingErrorAction.REPLACE;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Pass-through response : counts written bytes without buffering the body (streaming, chunked, SSE).
+ * 
+ * @author u$f
+ *
+ */
+final class CountingResponseWrapper extends HttpServletResponseWrapper {
+
+	private CountingOutputStream stream;
+	private CountingWriter counter;
+	private PrintWriter writer;
+
+	CountingResponseWrapper(HttpServletResponse response) {
+		super(response);
+	}
+
+	@Override
+	public ServletOutputStream getOutputStream() throws IOException {
+		if(isNull(stream)) {
+			stream = new CountingOutputStream(super.getOutputStream()); //IllegalStateException : getWriter
+		}
+		return stream;
+	}
+
+	@Override
+	public PrintWriter getWriter() throws IOException {
+		if(isNull(writer)) {
+			counter = new CountingWriter(super.getWriter(), forName(getCharacterEncoding())); //IllegalStateException : getOutputStream
+			writer = new PrintWriter(counter); //println : line separator counted
+		}
+		return writer;
+	}
+
+	@Override
+	public void reset() {
+		super.reset(); //IllegalStateException : committed
+		resetCount();
+	}
+
+	@Override
+	public void resetBuffer() {
+		super.resetBuffer(); //IllegalStateException : committed
+		resetCount();
+	}
+
+	long getContentSize() {
+		return (nonNull(stream) ? stream.count : 0) + (nonNull(counter) ? counter.count : 0);
+	}
+
+	private void resetCount() {
+		if(nonNull(stream)) {
+			stream.count = 0;
+		}
+		if(nonNull(counter)) {
+			counter.reset();
+		}
+	}
+
+	private static final class CountingOutputStream extends ServletOutputStream {
+
+		private final ServletOutputStream out;
+		private long count; //request thread
+
+		CountingOutputStream(ServletOutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+
+		@Override
+		public boolean isReady() {
+			return out.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener listener) {
+			out.setWriteListener(listener);
+		}
+	}
+
+	/**
+	 * counts encoded bytes, buffering &amp; flush left to the container writer
+	 */
+	private static final class CountingWriter extends Writer {
+
+		private final Writer out;
+		private final Charset charset;
+		private final boolean singleByte;
+		private CharsetEncoder encoder; //stateful : BOM, split surrogates
+		private ByteBuffer buffer;
+		private long count; //request thread
+
+		CountingWriter(Writer out, Charset charset) {
+			this.out = out;
+			this.charset = charset;
+			this.singleByte = charset.equals(ISO_8859_1) || charset.equals(US_ASCII);
+		}
+
+		@Override
+		public void write(int c) throws IOException {
+			out.write(c);
+			count += singleByte ? 1 : length(String.valueOf((char) c));
+		}
+
+		@Override
+		public void write(char[] buf, int off, int len) throws IOException {
+			out.write(buf, off, len);
+			count += singleByte ? len : length(CharBuffer.wrap(buf, off, len));
+		}
+
+		@Override
+		public void write(String s, int off, int len) throws IOException {
+			out.write(s, off, len);
+			count += singleByte ? len : length(CharBuffer.wrap(s, off, off + len));
+		}
+
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+
+		void reset() {
+			count = 0;
+			if(nonNull(encoder)) {
+				encoder.reset(); //BOM written again
+			}
+		}
+
+		private long length(CharSequence cs) {
+			if(charset.equals(UTF_8)) {
+				var n = 0L;
+				for(var i=0; i<cs.length(); i++) {
+					var c = cs.charAt(i);
+					n += c < 0x80 ? 1 : c < 0x800 || isSurrogate(c) ? 2 : 3; //surrogate pair : 4
+				}
+				return n;
+			}
+			if(isNull(encoder)) { //rare
+				encoder = charset.newEncoder().onMalformedInput(REPLACE).onUnmappableCharacter(REPLACE);
+				buffer = ByteBuffer.allocate(1024);
+			}
+			var in = CharBuffer.wrap(cs);
+			var n = 0L;
+			CoderResult res;
+			do {
+				buffer.clear();
+				res = encoder.encode(in, buffer, false);
+				n += buffer.position();
+			} while(res.isOverflow());
+			return n;
+		}
+	}
+}
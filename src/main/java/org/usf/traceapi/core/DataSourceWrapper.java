@@ -1,19 +1,23 @@
 package org.usf.traceapi.core;
 
-import static java.time.Instant.now;
+import static java.lang.System.nanoTime;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static java.util.Optional.ofNullable;
 import static java.util.regex.Pattern.CASE_INSENSITIVE;
 import static java.util.regex.Pattern.compile;
+import static org.usf.traceapi.core.Helper.JDBC;
 import static org.usf.traceapi.core.Helper.localTrace;
 import static org.usf.traceapi.core.Helper.log;
 import static org.usf.traceapi.core.Helper.stackTraceElement;
 import static org.usf.traceapi.core.Helper.threadName;
 import static org.usf.traceapi.core.Helper.warnNoSession;
+import static org.usf.traceapi.core.TraceClock.clock;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import javax.sql.DataSource;
@@ -34,58 +38,56 @@ public final class DataSourceWrapper implements DataSource {
 	private static final Pattern hostPattern = compile("^jdbc:[\\w:]+@?//([-\\w\\.]+)(:(\\d+))?(/(\\w+)|/(\\w+)[\\?,;].*|.*)$", CASE_INSENSITIVE);
 	private static final Pattern dbPattern = compile("database=(\\w+)", CASE_INSENSITIVE);
 	
+	private static final String DEFAULT_USER = ""; //getConnection()
+	
 	@Delegate
 	private final DataSource ds;
+	private final Map<String, DatabaseDescriptor> descriptors = new ConcurrentHashMap<>(); //by requested user
 
 	@Override
 	public Connection getConnection() throws SQLException {
-		return getConnection(ds::getConnection);
+		return getConnection(DEFAULT_USER, ds::getConnection);
 	}
 
 	@Override
 	public Connection getConnection(String username, String password) throws SQLException {
-		return getConnection(()-> ds.getConnection(username, password));
+		return getConnection(isNull(username) ? DEFAULT_USER : username, ()-> ds.getConnection(username, password));
 	}
 	
-	private Connection getConnection(SQLSupplier<Connection> cnSupp) throws SQLException {
+	private Connection getConnection(String user, SQLSupplier<Connection> cnSupp) throws SQLException {
 		var session = localTrace.get();
 		if(isNull(session)) {
 			warnNoSession();
 			return cnSupp.get();
 		}
 		log.trace("outcoming query.."); // no id
-		JDBCActionTracer tracer = new JDBCActionTracer();
+		var clock = clock(session);
+		JDBCActionTracer tracer = new JDBCActionTracer(clock);
 		var out = new DatabaseRequest();
     	ConnectionWrapper cn = null;
-		var beg = now();
+		out.start(clock, nanoTime());
 		try {
 			cn = tracer.connection(cnSupp);
 		}
 		catch(SQLException e) {
-			out.setEnd(now());
+			out.end(nanoTime());
+			descriptors.remove(user); //URL may have changed (failover, reconfiguration)
 			throw e; //tracer => out.completed=false 
 		}
 		finally {
 			try {
-				out.setStart(beg);
 				out.setThreadName(threadName());
 				out.setActions(tracer.getActions());
 				out.setCommands(tracer.getCommands());
-				stackTraceElement().ifPresent(st->{
+				stackTraceElement(JDBC).ifPresent(st->{
 					out.setName(st.getMethodName());
 					out.setLocation(st.getClassName());
 				});
 				if(nonNull(cn)) {
-					var meta = cn.getMetaData();
-					var args = decodeURL(meta.getURL());
-					out.setHost(args[0]);
-					out.setPort(ofNullable(args[1]).map(Integer::parseInt).orElse(null));
-					out.setDatabase(args[2]);
-					out.setUser(meta.getUserName());
-					out.setDatabaseName(meta.getDatabaseProductName());
-					out.setDatabaseVersion(meta.getDatabaseProductVersion());
-					out.setDriverVersion(meta.getDriverVersion());
-					cn.setOnClose(()-> out.setEnd(now())); //differed end
+					var desc = descriptor(user, cn);
+					out.setDescriptor(desc);
+					out.setUser(desc.user());
+					cn.setOnClose(()-> out.end(nanoTime())); //differed end
 				}
 				session.append(out);
 			}
@@ -97,6 +99,17 @@ public final class DataSourceWrapper implements DataSource {
 		return cn;
 	}
 	
+	private DatabaseDescriptor descriptor(String user, ConnectionWrapper cn) throws SQLException {
+		var meta = cn.getCn().getMetaData(); //not traced
+		var url = meta.getURL();
+		var desc = descriptors.get(user);
+		if(isNull(desc) || !Objects.equals(desc.url(), url)) { //refreshed on URL change (failover, reconfiguration)
+			desc = DatabaseDescriptor.of(meta);
+			descriptors.put(user, desc);
+		}
+		return desc;
+	}
+	
 	static String[] decodeURL(String url) {
 		var m = hostPattern.matcher(url);
 		String[] arr = new String[3];
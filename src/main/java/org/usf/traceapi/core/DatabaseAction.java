@@ -4,7 +4,6 @@ import java.time.Instant;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -15,12 +14,9 @@ import lombok.Setter;
  */
 @Getter
 @Setter
-@AllArgsConstructor
-public final class DatabaseAction implements Metric {
+public final class DatabaseAction extends TimedMetric {
 	
 	private final JDBCAction type;
-	private final Instant start;
-	private Instant end;
 	private ExceptionInfo exception; 
 	private long[] count; // only for BATCH|UPDATE|FETCH
 	
@@ -28,6 +24,19 @@ public final class DatabaseAction implements Metric {
 	public DatabaseAction(JDBCAction type, Instant start, Instant end, ExceptionInfo exception) {
 		this(type, start, end, exception, null);
 	}
+
+	public DatabaseAction(JDBCAction type, Instant start, Instant end, ExceptionInfo exception, long[] count) {
+		super(start, end);
+		this.type = type;
+		this.exception = exception;
+		this.count = count;
+	}
+	
+	DatabaseAction(JDBCAction type, TraceClock clock, long start, long end, ExceptionInfo exception) {
+		super(clock, start, end);
+		this.type = type;
+		this.exception = exception;
+	}
 	
 	@Override
 	public String toString() {
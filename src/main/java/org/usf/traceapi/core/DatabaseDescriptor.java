@@ -0,0 +1,25 @@
+package org.usf.traceapi.core;
+
+import static java.util.Optional.ofNullable;
+import static org.usf.traceapi.core.DataSourceWrapper.decodeURL;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * Connection metadata resolved once per {@link DataSourceWrapper}, user &amp; URL, shared by {@link DatabaseRequest}s.
+ * 
+ * @author u$f
+ *
+ */
+record DatabaseDescriptor(String url, String user, String host, Integer port, String database, 
+		String databaseName, String databaseVersion, String driverVersion) {
+	
+	static DatabaseDescriptor of(DatabaseMetaData meta) throws SQLException {
+		var url = meta.getURL();
+		var args = decodeURL(url);
+		return new DatabaseDescriptor(url, meta.getUserName(), 
+				args[0], ofNullable(args[1]).map(Integer::parseInt).orElse(null), args[2],
+				meta.getDatabaseProductName(), meta.getDatabaseProductVersion(), meta.getDriverVersion());
+	}
+}
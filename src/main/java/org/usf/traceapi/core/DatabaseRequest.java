@@ -1,11 +1,13 @@
 package org.usf.traceapi.core;
 
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -27,6 +29,33 @@ public class DatabaseRequest extends RunnableStage {
 	private String databaseVersion;
 	private List<DatabaseAction> actions;
 	private List<SqlCommand> commands;
+	@Getter(AccessLevel.PACKAGE)
+	@Setter(AccessLevel.PACKAGE)
+	private DatabaseDescriptor descriptor; //shared, overrides connection fields
+	
+	public String getHost() {
+		return nonNull(descriptor) ? descriptor.host() : host;
+	}
+	
+	public Integer getPort() {
+		return nonNull(descriptor) ? descriptor.port() : port;
+	}
+	
+	public String getDatabase() {
+		return nonNull(descriptor) ? descriptor.database() : database;
+	}
+	
+	public String getDriverVersion() {
+		return nonNull(descriptor) ? descriptor.driverVersion() : driverVersion;
+	}
+	
+	public String getDatabaseName() {
+		return nonNull(descriptor) ? descriptor.databaseName() : databaseName;
+	}
+	
+	public String getDatabaseVersion() {
+		return nonNull(descriptor) ? descriptor.databaseVersion() : databaseVersion;
+	}
 	
 	public boolean isCompleted() {
 		return actions.stream().allMatch(a-> isNull(a.getException()));
@@ -44,7 +73,7 @@ public class DatabaseRequest extends RunnableStage {
 	
 	@Deprecated(forRemoval = true, since = "17")
 	public String getSchema(){
-		return database;
+		return getDatabase();
 	}
 
 	@Deprecated(forRemoval = true, since = "17")
@@ -0,0 +1,79 @@
+package org.usf.traceapi.core;
+
+import static java.lang.String.join;
+import static java.util.Objects.isNull;
+import static java.util.function.Predicate.not;
+import static java.util.stream.Collectors.joining;
+import static org.springframework.web.servlet.HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE;
+import static org.springframework.web.servlet.HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Endpoint name resolved once per best matching pattern (ex. <code>/users/{id}</code> =&gt; <code>users</code>),
+ * {@link TraceableStage} metadata resolved once per handler method.
+ * 
+ * @author u$f
+ *
+ */
+final class EndpointResolver {
+	
+	static final Stage NO_STAGE = new Stage(null, null);
+	
+	private final Map<String, String> names = new ConcurrentHashMap<>(); //mapped patterns : bounded
+	private final Map<Method, Stage> stages = new ConcurrentHashMap<>();
+	
+	String name(HttpServletRequest req) {
+		if(req.getAttribute(BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String p) {
+			var name = names.computeIfAbsent(p, k-> patternName(req.getContextPath(), k)); //same context path
+			return name.isEmpty() ? requestName(req) : name; //ex. /**, /{id}
+		}
+		return requestName(req); //no mapping : 404, ..
+	}
+	
+	Stage stage(Object handler) {
+		return handler instanceof HandlerMethod hm //important! !static resource
+				? stages.computeIfAbsent(hm.getMethod(), EndpointResolver::resolveStage)
+				: NO_STAGE;
+	}
+	
+	static String patternName(String contextPath, String pattern) {
+		return Stream.of(contextPath, pattern)
+				.flatMap(s-> Stream.of(s.split("/")))
+				.filter(not(String::isEmpty))
+				.filter(s-> s.indexOf('{') < 0 && s.indexOf('*') < 0) //variables & wildcards
+				.collect(joining("_"));
+	}
+
+	@SuppressWarnings("unchecked")
+	static String requestName(HttpServletRequest req) {
+		var arr = req.getRequestURI().substring(1).split("/");
+		var map = (Map<String, String>) req.getAttribute(URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		return isNull(map) ? join("_", arr) : Stream.of(arr)
+				.filter(not(map.values()::contains))
+				.collect(joining("_"));
+	}
+	
+	private static Stage resolveStage(Method m) {
+		var a = AnnotatedElementUtils.findMergedAnnotation(m, TraceableStage.class); //same as HandlerMethod::getMethodAnnotation
+		if(isNull(a)) {
+			return NO_STAGE;
+		}
+		return new Stage(a.value().isBlank() ? null : a.value(), 
+				a.sessionUpdater() == StageUpdater.class ? null : a.sessionUpdater());
+	}
+	
+	/**
+	 * @param name nullable : default endpoint name
+	 * @param updater nullable, instantiated per request (not required to be thread-safe)
+	 */
+	record Stage(String name, Class<? extends StageUpdater> updater) { }
+}
@@ -0,0 +1,83 @@
+package org.usf.traceapi.core;
+
+import static java.lang.Long.MAX_VALUE;
+import static java.util.Objects.nonNull;
+
+/**
+ * Chooses the sessions removed from the buffer when it exceeds {@code bufferMaxSize} :
+ * lowest priority first, newest first on ties.
+ *
+ * @author u$f
+ *
+ */
+@FunctionalInterface
+public interface EvictionPolicy {
+
+	long FAST_MILLIS = 1_000; //fast-success threshold
+
+	long priority(Session session); //higher is kept
+
+	static EvictionPolicy lifo() {
+		return s-> 0;
+	}
+
+	static EvictionPolicy keepErrors() {
+		return s-> hasError(s) ? 1 : 0;
+	}
+
+	static EvictionPolicy keepSlowest() {
+		return Metric::duration;
+	}
+
+	/**
+	 * fast 2xx are downsampled first (uniformly, by id), then slowest, errors last
+	 */
+	static EvictionPolicy dropFastSuccess() {
+		return s-> {
+			if(hasError(s)) {
+				return MAX_VALUE;
+			}
+			var d = s.duration();
+			return d < FAST_MILLIS && isSuccess(s)
+					? nonNull(s.getId()) ? s.getId().hashCode() & 0xffff : 0
+					: (1 << 16) + d;
+		};
+	}
+
+	static EvictionPolicy evictionPolicy(String name) {
+		return switch (name.toLowerCase()) {
+		case "lifo" -> lifo();
+		case "errors" -> keepErrors();
+		case "slowest" -> keepSlowest();
+		case "fast-success" -> dropFastSuccess();
+		default -> throw new IllegalArgumentException("unsupported eviction policy : " + name);
+		};
+	}
+
+	/**
+	 * eviction counter key
+	 */
+	static String category(Session s) {
+		if(s instanceof RunnableStage st && nonNull(st.getException())) {
+			return "exception";
+		}
+		if(s instanceof ApiRequest req) {
+			if(req.getStatus() >= 500) {
+				return "server-error";
+			}
+			if(req.getStatus() >= 400) {
+				return "client-error";
+			}
+		}
+		return "success";
+	}
+
+	private static boolean hasError(Session s) {
+		return (s instanceof RunnableStage st && nonNull(st.getException()))
+				|| (s instanceof ApiRequest req && req.getStatus() >= 500);
+	}
+
+	private static boolean isSuccess(Session s) {
+		return !(s instanceof ApiRequest req) || req.getStatus() / 100 == 2; //main session
+	}
+}
@@ -0,0 +1,94 @@
+package org.usf.traceapi.core;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.springframework.http.server.PathContainer.parsePath;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.springframework.web.util.pattern.PatternParseException;
+
+/**
+ * Exclusion patterns compiled once ({@link PathPattern}, {@link AntPathMatcher} for unsupported syntax ex. <code>/**&#47;x</code>)
+ * with a bounded, lock-free per-path decision cache (cleared when full).
+ * <p>
+ * Differences with {@link AntPathMatcher} :
+ * <ul>
+ * <li>trailing slash : strict for both, <code>/health</code> does not match <code>/health/</code> (Spring 6 default)</li>
+ * <li><code>**</code> : end of pattern only, <code>/**&#47;x</code> falls back to {@link AntPathMatcher} (same result)</li>
+ * <li><code>{*var}</code> : captures the remaining path (PathPattern only)</li>
+ * <li>matrix variables : ignored, <code>/health</code> matches <code>/health;a=b</code> (PathPattern only)</li>
+ * </ul>
+ * 
+ * @author u$f
+ *
+ */
+final class ExclusionMatcher implements Predicate<String> {
+	
+	static final int MAX_PATHS = 1_000; //cache cleared beyond
+	
+	private final PathPattern[] patterns;
+	private final String[] antPatterns; //fallback
+	private final AntPathMatcher matcher = new AntPathMatcher();
+	private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+	
+	ExclusionMatcher(String... patterns) {
+		var pp = new ArrayList<PathPattern>();
+		var ap = new ArrayList<String>();
+		if(nonNull(patterns)) {
+			for(var p : patterns) {
+				if(p.startsWith("/")) {
+					try {
+						pp.add(PathPatternParser.defaultInstance.parse(p));
+						continue;
+					}
+					catch (PatternParseException e) {
+						//AntPathMatcher syntax
+					}
+				}
+				ap.add(p);
+			}
+		}
+		this.patterns = pp.toArray(PathPattern[]::new);
+		this.antPatterns = ap.toArray(String[]::new);
+	}
+
+	@Override
+	public boolean test(String path) {
+		if(patterns.length == 0 && antPatterns.length == 0) {
+			return false;
+		}
+		var d = decisions.get(path);
+		if(isNull(d)) {
+			d = match(path);
+			if(decisions.size() >= MAX_PATHS) { //dynamic paths : hot paths cached again
+				decisions.clear();
+			}
+			decisions.put(path, d);
+		}
+		return d;
+	}
+	
+	int cached() {
+		return decisions.size();
+	}
+	
+	boolean match(String path) {
+		if(patterns.length > 0) {
+			var pc = parsePath(path);
+			for(var p : patterns) {
+				if(p.matches(pc)) {
+					return true;
+				}
+			}
+		}
+		return Stream.of(antPatterns).anyMatch(p-> matcher.match(p, path));
+	}
+}
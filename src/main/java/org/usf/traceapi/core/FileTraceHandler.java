@@ -0,0 +1,211 @@
+package org.usf.traceapi.core;
+
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.delete;
+import static java.nio.file.Files.move;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.time.Instant.now;
+import static java.time.ZoneId.systemDefault;
+import static java.time.format.DateTimeFormatter.ofPattern;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.usf.traceapi.core.Helper.log;
+import static org.usf.traceapi.core.JsonSessionCodec.createObjectMapper;
+import static org.usf.traceapi.core.Samplers.sessionFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.function.UnaryOperator;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Writes completed sessions to a rolling NDJSON file (one session per line).
+ * <pre>
+ * {directory}/traces.ndjson                       : current file
+ * {directory}/traces-{yyyyMMdd-HHmmss-SSS}.ndjson[.gz] : closed files
+ * </pre>
+ *
+ * @author u$f
+ *
+ */
+public final class FileTraceHandler implements TraceHandler {
+
+	static final String FILE_NAME = "traces";
+	static final String FILE_EXT = ".ndjson";
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final DateTimeFormatter SUFFIX = ofPattern("yyyyMMdd-HHmmss-SSS").withZone(systemDefault());
+
+	private final TraceConfigurationProperties properties;
+	private final Path dir;
+	private final Path file;
+	private final ObjectWriter writer = createObjectMapper().writerFor(Session.class); //@type
+	private final ByteBuffer buffer = allocateDirect(BUFFER_SIZE);
+	private final ByteArrayOutputStream line = new ByteArrayOutputStream(1024);
+	private final ScheduledSessionDispatcher dispatcher;
+	private final ExecutorService compressor; //off the writer lock
+	private final UnaryOperator<FileChannel> channels;
+	private FileChannel channel;
+	private long openedAt;
+
+	public FileTraceHandler(TraceConfigurationProperties properties) {
+		this(properties, UnaryOperator.identity());
+	}
+
+	FileTraceHandler(TraceConfigurationProperties properties, UnaryOperator<FileChannel> channels) { //test : channel decorator
+		this.properties = properties;
+		this.channels = channels;
+		try {
+			this.dir = createDirectories(Path.of(properties.getFileDirectory()));
+			this.file = dir.resolve(FILE_NAME + FILE_EXT);
+			this.channel = open();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.compressor = properties.isCompress() ? newSingleThreadExecutor() : null;
+		this.dispatcher = new ScheduledSessionDispatcher(properties, sessionFilter(properties), this::writeSessions);
+	}
+
+	@Override
+	public void handle(Session session) {
+		dispatcher.add(session);
+	}
+
+	@Override
+	public void complete(Session session) {
+		dispatcher.complete(session);
+	}
+
+	synchronized boolean writeSessions(int attempts, List<? extends Session> sessions) {
+		var pos = -1L;
+		try {
+			if(needRotation()) {
+				rotate();
+			}
+			pos = channel.size(); //batch start
+			for(var s : sessions) {
+				line.reset();
+				writer.writeValue(line, s);
+				line.write('\n');
+				var bytes = line.toByteArray();
+				if(bytes.length > buffer.remaining()) {
+					drain();
+				}
+				if(bytes.length > buffer.capacity()) {
+					write(ByteBuffer.wrap(bytes)); //large session
+				}
+				else {
+					buffer.put(bytes);
+				}
+			}
+			drain();
+			channel.force(false); //group commit : once per batch
+			return true;
+		}
+		catch (IOException e) {
+			buffer.clear();
+			if(pos > -1) {
+				truncate(pos); //retried batch : no duplicate lines
+			}
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void truncate(long pos) {
+		try {
+			channel.truncate(pos);
+		}
+		catch (IOException e) {
+			log.warn("cannot truncate trace file to {} bytes", pos, e);
+		}
+	}
+
+	synchronized void rotate() throws IOException {
+		channel.close();
+		var closed = dir.resolve(FILE_NAME + "-" + SUFFIX.format(now()) + FILE_EXT);
+		move(file, closed);
+		channel = open();
+		log.info("trace file rotated : {}", closed);
+		if(nonNull(compressor)) {
+			compressor.execute(()-> compress(closed));
+		}
+	}
+
+	private boolean needRotation() throws IOException {
+		return channel.size() > 0 && (channel.size() >= properties.getFileMaxSize()
+				|| System.currentTimeMillis() - openedAt >= MINUTES.toMillis(properties.getFileMaxAge()));
+	}
+
+	private void drain() throws IOException {
+		buffer.flip();
+		write(buffer);
+		buffer.clear();
+	}
+
+	private void write(ByteBuffer buf) throws IOException {
+		while(buf.hasRemaining()) {
+			channel.write(buf);
+		}
+	}
+
+	private FileChannel open() throws IOException {
+		openedAt = System.currentTimeMillis();
+		return channels.apply(FileChannel.open(file, CREATE, WRITE, APPEND));
+	}
+
+	private static void compress(Path src) {
+		var gz = src.resolveSibling(src.getFileName() + ".gz");
+		try(var in = newInputStream(src); var out = new GZIPOutputStream(newOutputStream(gz), BUFFER_SIZE)) {
+			in.transferTo(out);
+		}
+		catch (IOException e) {
+			log.warn("cannot compress trace file {}", src, e);
+			return; //keep the plain file
+		}
+		try {
+			delete(src);
+		}
+		catch (IOException e) {
+			log.warn("cannot delete trace file {}", src, e);
+		}
+	}
+
+	@Override
+	public void shutdown() throws InterruptedException {
+		try {
+			dispatcher.shutdown();
+		}
+		finally {
+			synchronized (this) {
+				try {
+					if(nonNull(channel)) {
+						channel.close();
+					}
+				} catch (IOException e) {
+					log.warn("error while closing trace file", e);
+				}
+			}
+			if(nonNull(compressor)) {
+				compressor.shutdown();
+				if(!compressor.awaitTermination(30, SECONDS)) {
+					log.warn("trace file compression still running");
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package org.usf.traceapi.core;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.ThreadLocalRandom.current;
+import static org.springframework.http.server.PathContainer.parsePath;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.springframework.web.util.pattern.PatternParseException;
+
+/**
+ * Sampling decision taken before the session is created : unsampled requests are not traced at all.
+ * The first matching pattern (request path | batch method name) overrides the default rate.
+ * Path patterns are compiled once ({@link PathPattern}, {@link AntPathMatcher} fallback), see {@link ExclusionMatcher}.
+ *
+ * @author u$f
+ *
+ */
+final class HeadSampler {
+
+	private final double rate;
+	private final Entry<String, Double>[] rates; //ordered
+	private final PathPattern[] patterns; //null : AntPathMatcher
+	private final AntPathMatcher matcher = new AntPathMatcher();
+
+	@SuppressWarnings("unchecked")
+	HeadSampler(double rate, Map<String, Double> rates) {
+		this.rate = requireRate(rate);
+		this.rates = rates.entrySet().toArray(Entry[]::new);
+		this.patterns = new PathPattern[this.rates.length];
+		for(var i=0; i<this.rates.length; i++) {
+			requireRate(this.rates[i].getValue());
+			patterns[i] = compile(this.rates[i].getKey());
+		}
+	}
+
+	boolean sample(String key) {
+		return sample(rate(key));
+	}
+
+	double rate(String key) {
+		PathContainer path = null; //parsed once
+		for(var i=0; i<rates.length; i++) {
+			var p = patterns[i];
+			if(isNull(p)) {
+				if(matcher.match(rates[i].getKey(), key)) {
+					return rates[i].getValue();
+				}
+			}
+			else if(key.startsWith("/")) { //batch method name otherwise
+				if(isNull(path)) {
+					path = parsePath(key);
+				}
+				if(p.matches(path)) {
+					return rates[i].getValue();
+				}
+			}
+		}
+		return rate;
+	}
+
+	static boolean sample(double rate) {
+		return rate >= 1 || (rate > 0 && current().nextDouble() < rate);
+	}
+
+	private static PathPattern compile(String pattern) {
+		if(nonNull(pattern) && pattern.startsWith("/")) {
+			try {
+				return PathPatternParser.defaultInstance.parse(pattern);
+			}
+			catch (PatternParseException e) {
+				//AntPathMatcher syntax
+			}
+		}
+		return null;
+	}
+
+	private static double requireRate(double rate) {
+		if(rate < 0 || rate > 1) {
+			throw new IllegalArgumentException("sample rate=" + rate + " not in [0, 1]");
+		}
+		return rate;
+	}
+}
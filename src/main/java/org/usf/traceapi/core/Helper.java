@@ -1,12 +1,17 @@
 package org.usf.traceapi.core;
 
+import static java.lang.StackWalker.Option.RETAIN_CLASS_REFERENCE;
 import static java.lang.Thread.currentThread;
 import static java.util.Objects.nonNull;
 import static java.util.Optional.empty;
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.usf.traceapi.core.HeadSampler.sample;
 
+import java.lang.StackWalker.StackFrame;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 
@@ -23,16 +28,39 @@ final class Helper {
 	
 	static final Logger log = getLogger(Helper.class.getPackage().getName() + ".TraceAPI");
 	
-	static String basePackage;
+	static final String JDBC = "jdbc";
+	static final String EXECUTOR = "executor";
+	
+	private static volatile String basePackage;
+	
+	static Map<String, Double> locationRates = Map.of(); //subsystem => location capture rate, 0 : off
+	
+	private static final StackWalker walker = StackWalker.getInstance(RETAIN_CLASS_REFERENCE);
+	
+	private static volatile ClassValue<Boolean> userClass = userClass(null); //per basePackage
+	
+	private static final ClassValue<Map<String, StackTraceElement>> callSites = new ClassValue<>() {
+		@Override
+		protected Map<String, StackTraceElement> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
 
 	static final ThreadLocal<Session> localTrace = new InheritableThreadLocal<>();
 	
+	static final ThreadLocal<Boolean> unsampled = new ThreadLocal<>(); //head sampling : no session expected, see TraceableExecutorService
+	
 	static ApplicationInfo application; //unsafe set
 	
 	static ApplicationInfo applicationInfo() {
 		return application;
 	}
 	
+	static void basePackage(String pkg) { //context refresh : new cache
+		basePackage = pkg;
+		userClass = userClass(pkg);
+	}
+	
 	static String threadName() {
 		return currentThread().getName();
 	}
@@ -56,26 +84,40 @@ final class Helper {
 		}
 	}
 	
-	static Optional<StackTraceElement> stackTraceElement() {
-		if(nonNull(basePackage) && !basePackage.isBlank()) {
-			var arr = currentThread().getStackTrace();
-			var i = 1; //location, internal call
-			while (++i<arr.length && !arr[i].getClassName().startsWith(basePackage));
-			return i<arr.length ? Optional.of(arr[i]) : empty(); 
+	static Optional<StackTraceElement> stackTraceElement(String subsystem) {
+		if(nonNull(basePackage) && !basePackage.isBlank() && sample(locationRates.getOrDefault(subsystem, 1.))) {
+			return walker.walk(s-> s.filter(Helper::isUserFrame).findFirst()) //lazy : stops at the first user frame
+					.map(f-> callSites.get(f.getDeclaringClass()).computeIfAbsent(f.getMethodName(), 
+							m-> new StackTraceElement(f.getClassName(), m, null, -1))); //class & method only
 		}
 		return empty();
 	}
 	
+	private static boolean isUserFrame(StackFrame f) {
+		return userClass.get(f.getDeclaringClass());
+	}
+	
+	private static ClassValue<Boolean> userClass(String pkg) {
+		return new ClassValue<>() {
+			@Override
+			protected Boolean computeValue(Class<?> type) {
+				return nonNull(pkg) && type.getName().startsWith(pkg) 
+						&& !type.getPackageName().equals(Helper.class.getPackageName()); //skip tracing frames
+			}
+		};
+	}
 	
 	static void warnNoSession() {
+		if(nonNull(unsampled.get())) {
+			return; //not sampled
+		}
 		log.warn("no active session");
-		if(nonNull(basePackage) && !basePackage.isBlank()) {
-			var arr = currentThread().getStackTrace();
-			for(var st : arr) {
-				if(st.getClassName().startsWith(basePackage)) {
-					log.warn("\tat  {}", st);
+		if(nonNull(basePackage) && !basePackage.isBlank() && log.isWarnEnabled()) {
+			walker.forEach(f-> {
+				if(isUserFrame(f)) {
+					log.warn("\tat  {}", f.toStackTraceElement());
 				}
-			}
+			});
 		}
 	}
 }
@@ -1,10 +1,10 @@
 package org.usf.traceapi.core;
 
-import static java.time.Instant.now;
-import static java.time.temporal.ChronoUnit.MILLIS;
+import static java.lang.System.nanoTime;
 import static java.util.Arrays.copyOf;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.usf.traceapi.core.ExceptionInfo.mainCauseException;
 import static org.usf.traceapi.core.Helper.log;
 import static org.usf.traceapi.core.JDBCAction.BATCH;
@@ -17,6 +17,7 @@ import static org.usf.traceapi.core.JDBCAction.ROLLBACK;
 import static org.usf.traceapi.core.JDBCAction.SAVEPOINT;
 import static org.usf.traceapi.core.JDBCAction.STATEMENT;
 import static org.usf.traceapi.core.SqlCommand.mainCommand;
+import static org.usf.traceapi.core.TraceClock.anchor;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
@@ -25,12 +26,12 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.time.Instant;
 import java.util.LinkedList;
 import java.util.function.Function;
-import java.util.function.Supplier;
+import java.util.function.LongSupplier;
 import java.util.stream.IntStream;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
@@ -40,14 +41,22 @@ import lombok.RequiredArgsConstructor;
  *
  */
 @Getter
-@RequiredArgsConstructor
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 public class JDBCActionTracer {
 	
+	private static final long MERGE_NANOS = MILLISECONDS.toNanos(2);
+	
+	@Getter(AccessLevel.NONE)
+	private final TraceClock clock; //session anchor
 	private final LinkedList<DatabaseAction> actions = new LinkedList<>();
 	private final LinkedList<SqlCommand> commands = new LinkedList<>();
 	
 	private DatabaseAction exec;
 	
+	public JDBCActionTracer() {
+		this(anchor());
+	}
+	
 	public ConnectionWrapper connection(SQLSupplier<Connection> supplier) throws SQLException {
 		return new ConnectionWrapper(trace(CONNECTION, supplier), this);
 	}
@@ -69,46 +78,80 @@ public class JDBCActionTracer {
 	}
 
 	public boolean execute(String sql, SQLSupplier<Boolean> supplier) throws SQLException {
-		var b = execute(EXECUTE, sql, supplier);
-		this.exec = actions.getLast(); 
-		return b;
+		addCommand(sql);
+		return execute(supplier);
+	}
+
+	boolean execute(String sql, SqlCommand cmd, SQLSupplier<Boolean> supplier) throws SQLException { //resolved command
+		addCommand(sql, cmd);
+		return execute(supplier);
 	}
 
 	public ResultSetWrapper executeQuery(String sql, SQLSupplier<ResultSet> supplier) throws SQLException {
-		return new ResultSetWrapper(execute(EXECUTE, sql, supplier), this, now()); // no count 
+		addCommand(sql);
+		return executeQuery(supplier);
+	}
+
+	ResultSetWrapper executeQuery(String sql, SqlCommand cmd, SQLSupplier<ResultSet> supplier) throws SQLException {
+		addCommand(sql, cmd);
+		return executeQuery(supplier);
 	}
 	
 	public ResultSetWrapper resultSet(SQLSupplier<ResultSet> supplier) throws SQLException {
-		return new ResultSetWrapper(supplier.get(), this, now());  // no need to trace this
+		return new ResultSetWrapper(supplier.get(), this, nanoTime());  // no need to trace this
 	}
 	
 	public int executeUpdate(String sql, SQLSupplier<Integer> supplier) throws SQLException {
-		return execute(sql, supplier, n-> new long[] {n});
+		addCommand(sql);
+		return execute(supplier, n-> new long[] {n});
 	}
 	
 	public long executeLargeUpdate(String sql, SQLSupplier<Long> supplier) throws SQLException {
-		return execute(sql, supplier, n-> new long[] {n});
+		addCommand(sql);
+		return execute(supplier, n-> new long[] {n});
 	}
 
 	public int[] executeBatch(String sql, SQLSupplier<int[]> supplier) throws SQLException {
-		return execute(sql, supplier, n-> IntStream.of(n).mapToLong(v-> v).toArray());
+		addCommand(sql);
+		return execute(supplier, JDBCActionTracer::toLongArray);
 	}
 	
 	public long[] executeLargeBatch(String sql, SQLSupplier<long[]> supplier) throws SQLException {
-		return execute(sql, supplier, n-> n);
+		addCommand(sql);
+		return execute(supplier, n-> n);
+	}
+	
+	<T> T execute(String sql, SqlCommand cmd, SQLSupplier<T> supplier, Function<T, long[]> countFn) throws SQLException { //resolved command
+		addCommand(sql, cmd);
+		return execute(supplier, countFn);
 	}
 
-	private <T> T execute(String sql, SQLSupplier<T> supplier, Function<T, long[]> countFn) throws SQLException  {
-		var rows = execute(EXECUTE, sql, supplier);
+	private boolean execute(SQLSupplier<Boolean> supplier) throws SQLException {
+		var b = trace(EXECUTE, supplier);
+		this.exec = actions.getLast(); 
+		return b;
+	}
+	
+	private ResultSetWrapper executeQuery(SQLSupplier<ResultSet> supplier) throws SQLException {
+		return new ResultSetWrapper(trace(EXECUTE, supplier), this, nanoTime()); // no count 
+	}
+
+	private <T> T execute(SQLSupplier<T> supplier, Function<T, long[]> countFn) throws SQLException  {
+		var rows = trace(EXECUTE, supplier);
 		actions.getLast().setCount(countFn.apply(rows));
 		return rows;
 	}
 
-	private <T> T execute(JDBCAction action, String sql, SQLSupplier<T> supplier) throws SQLException {
+	private void addCommand(String sql) {
 		if(nonNull(sql)) {
 			commands.add(mainCommand(sql));
 		} //BATCH otherwise 
-		return trace(action, supplier);
+	}
+
+	private void addCommand(String sql, SqlCommand cmd) {
+		if(nonNull(sql)) {
+			commands.add(cmd); //nullable : unknown command
+		}
 	}
 
 	public <T> T savePoint(SQLSupplier<T> supplier) throws SQLException {
@@ -116,10 +159,8 @@ public class JDBCActionTracer {
 	}
 
 	public void addBatch(String sql, SQLMethod method) throws SQLException {
-		if(nonNull(sql)) {
-			commands.add(mainCommand(sql));
-		} // PreparedStatement otherwise 
-		trace(BATCH, Instant::now, method, this::tryUpdatePrevious);
+		addCommand(sql); // PreparedStatement otherwise 
+		trace(BATCH, System::nanoTime, method, this::tryUpdatePrevious);
 	}
 	
 	public void commit(SQLMethod method) throws SQLException {
@@ -130,19 +171,19 @@ public class JDBCActionTracer {
 		trace(ROLLBACK, method);
 	}
 	
-	public void fetch(Instant start, SQLMethod method, int n) throws SQLException {
+	public void fetch(long start, SQLMethod method, int n) throws SQLException {
 		trace(FETCH, ()-> start, method, this::append); // differed start
 		actions.getLast().setCount(new long[] {n});
 	}
 	
 	<T> T trace(JDBCAction action, SQLSupplier<T> sqlSupp) throws SQLException {
-		return trace(action, Instant::now, sqlSupp, this::append);
+		return trace(action, System::nanoTime, sqlSupp, this::append);
 	}
 
-	private <T> T trace(JDBCAction action, Supplier<Instant> startSupp, SQLSupplier<T> sqlSupp, DatabaseActionConsumer cons) throws SQLException {
+	private <T> T trace(JDBCAction action, LongSupplier startSupp, SQLSupplier<T> sqlSupp, DatabaseActionConsumer cons) throws SQLException {
 		log.trace("executing {} action..", action);
 		SQLException ex = null;
-		var beg = startSupp.get();
+		var beg = startSupp.getAsLong();
 		try {
 			return sqlSupp.get();
 		}
@@ -151,7 +192,7 @@ public class JDBCActionTracer {
 			throw e;
 		}
 		finally {
-			var fin = now();
+			var fin = nanoTime();
 			cons.accept(action, beg, fin, mainCauseException(ex));
 		}
 	}
@@ -176,13 +217,13 @@ public class JDBCActionTracer {
 		}
 	}
 
-	void tryUpdatePrevious(JDBCAction type, Instant start, Instant end, ExceptionInfo ex) {
-		if(!actions.isEmpty() && actions.getLast().getType() == type && MILLIS.between(actions.getLast().getEnd(), start) < 2) { //config!?
-			var action = actions.getLast();
+	void tryUpdatePrevious(JDBCAction type, long start, long end, ExceptionInfo ex) {
+		var action = actions.peekLast();
+		if(nonNull(action) && action.getType() == type && action.getClock() == clock && start - action.endNanos() < MERGE_NANOS) { //config!?
 			if(nonNull(ex) && isNull(action.getException())) {
 				action.setException(ex);
 			}
-			action.setEnd(end);
+			action.end(end);
 			if(isNull(action.getCount())) {
 				action.setCount(new long[] {0});
 			}
@@ -193,8 +234,12 @@ public class JDBCActionTracer {
 		}
 	}
 	
-	void append(JDBCAction type, Instant start, Instant end, ExceptionInfo ex) {
-		actions.add(new DatabaseAction(type, start, end, ex));
+	void append(JDBCAction type, long start, long end, ExceptionInfo ex) {
+		actions.add(new DatabaseAction(type, clock, start, end, ex));
+	}
+	
+	static long[] toLongArray(int[] arr) {
+		return IntStream.of(arr).mapToLong(v-> v).toArray();
 	}
 	
 	static long[] appendLong(long[]arr, long v) {
@@ -223,6 +268,6 @@ public class JDBCActionTracer {
 	@FunctionalInterface
 	public interface DatabaseActionConsumer {
 		
-		void accept(JDBCAction action, Instant start, Instant end, ExceptionInfo ex);
+		void accept(JDBCAction action, long start, long end, ExceptionInfo ex); //nanoTime
 	}
 }
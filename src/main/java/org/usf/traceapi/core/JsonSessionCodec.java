@@ -0,0 +1,75 @@
+package org.usf.traceapi.core;
+
+import static com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET;
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+import static com.fasterxml.jackson.databind.SerializationFeature.FLUSH_AFTER_WRITE_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+/**
+ *
+ * @author u$f
+ *
+ */
+public final class JsonSessionCodec implements SessionCodec {
+
+	private final ObjectWriter writer;
+	private final ObjectReader reader;
+
+	public JsonSessionCodec() {
+		this(createObjectMapper());
+	}
+
+	public JsonSessionCodec(ObjectMapper mapper) {
+		this.writer = mapper.writerFor(Session.class).without(FLUSH_AFTER_WRITE_VALUE); //@type
+		this.reader = mapper.readerFor(new TypeReference<List<Session>>() {}).without(FAIL_ON_UNKNOWN_PROPERTIES);
+	}
+
+	@Override
+	public String getContentType() {
+		return APPLICATION_JSON_VALUE;
+	}
+
+	@Override
+	public SessionWriter writer(OutputStream out) throws IOException {
+		var gen = writer.getFactory().createGenerator(out).disable(AUTO_CLOSE_TARGET); //streaming
+		gen.writeStartArray();
+		return new SessionWriter() {
+
+			@Override
+			public void write(Session session) throws IOException {
+				writer.writeValue(gen, session);
+			}
+
+			@Override
+			public void close() throws IOException {
+				gen.writeEndArray();
+				gen.close();
+			}
+		};
+	}
+
+	@Override
+	public List<Session> read(InputStream in) throws IOException {
+		return reader.readValue(in);
+	}
+
+	static ObjectMapper createObjectMapper() {
+	     ObjectMapper mapper = new ObjectMapper();
+	     mapper.registerModules(new JavaTimeModule(), new ParameterNamesModule()); //constructor args : server side
+	     mapper.registerSubtypes(ApiSession.class, MainSession.class);
+//	     mapper.disable(WRITE_DATES_AS_TIMESTAMPS) important! write Instant as double
+	     return mapper;
+	}
+}
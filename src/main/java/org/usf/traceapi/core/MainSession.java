@@ -1,7 +1,5 @@
 package org.usf.traceapi.core;
 
-import static java.util.Collections.synchronizedCollection;
-
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -21,12 +19,13 @@ import lombok.Setter;
 @Getter
 @Setter
 @JsonTypeName("main")
-@JsonIgnoreProperties("lock")
+@JsonIgnoreProperties({"lock", "emitted"})
 public final class MainSession extends RunnableStage implements Session {
 	
 	private String id;
 	private LaunchMode launchMode;
 	private ApplicationInfo application;
+	private double sampleRate = 1;
 	private final Collection<ApiRequest> requests;
 	private final Collection<DatabaseRequest> queries;
 	private final Collection<RunnableStage> stages;
@@ -34,6 +33,7 @@ public final class MainSession extends RunnableStage implements Session {
 	//location : URL, File, SI, ...
 
 	private final AtomicInteger lock = new AtomicInteger();
+	private volatile boolean emitted;
 
 	public MainSession() {
 		this(new LinkedList<>(), new LinkedList<>(), new LinkedList<>());
@@ -61,11 +61,11 @@ public final class MainSession extends RunnableStage implements Session {
 		stages.add(stage);
 	}
 	
-	static MainSession synchronizedMainSession(String id) {
+	static MainSession concurrentMainSession(String id) {
 		var ss = new MainSession(
-				synchronizedCollection(new LinkedList<>()), 
-				synchronizedCollection(new LinkedList<>()), 
-				synchronizedCollection(new LinkedList<>()));
+				new AppendOnlyCollection<>(), 
+				new AppendOnlyCollection<>(), 
+				new AppendOnlyCollection<>()); //lock-free appends
 		ss.setId(id);	
 		return ss;
 	}
@@ -21,5 +21,11 @@ public interface Metric {
 				? -1 // not set yet
 				: between(getStart(), getEnd()).toMillis();
 	}
+	
+	default long durationNanos(){ //sub-millisecond precision
+		return isNull(getStart()) || isNull(getEnd()) 
+				? -1 // not set yet
+				: between(getStart(), getEnd()).toNanos();
+	}
 
 }
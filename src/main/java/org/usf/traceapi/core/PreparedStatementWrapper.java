@@ -1,5 +1,8 @@
 package org.usf.traceapi.core;
 
+import static java.util.Objects.nonNull;
+import static org.usf.traceapi.core.SqlCommand.mainCommand;
+
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -18,6 +21,8 @@ public final class PreparedStatementWrapper extends StatementWrapper implements
 	@Delegate(excludes = Statement.class)
 	private final PreparedStatement ps;
 	private final String sql;
+	private SqlCommand command; //nullable : unknown command
+	private boolean parsed; //once, unknown command included
 
 	public PreparedStatementWrapper(PreparedStatement ps, JDBCActionTracer tracer, String sql) {
 		super(ps, tracer);
@@ -32,22 +37,22 @@ public final class PreparedStatementWrapper extends StatementWrapper implements
 	
 	@Override
 	public boolean execute() throws SQLException {
-		return tracer.execute(sql, ps::execute);
+		return tracer.execute(sql, command(), ps::execute);
 	}
 	
 	@Override
 	public ResultSet executeQuery() throws SQLException {
-		return tracer.executeQuery(sql, ps::executeQuery);
+		return tracer.executeQuery(sql, command(), ps::executeQuery);
 	}
 	
 	@Override
 	public int executeUpdate() throws SQLException {
-		return tracer.executeUpdate(sql, ps::executeUpdate);
+		return tracer.execute(sql, command(), ps::executeUpdate, n-> new long[] {n});
 	}
 	
 	@Override
 	public long executeLargeUpdate() throws SQLException {
-		return tracer.executeLargeUpdate(sql, ps::executeLargeUpdate);
+		return tracer.execute(sql, command(), ps::executeLargeUpdate, n-> new long[] {n});
 	}
 	
 	@Override
@@ -59,11 +64,19 @@ public final class PreparedStatementWrapper extends StatementWrapper implements
 
 	@Override
 	public int[] executeBatch() throws SQLException {
-		return tracer.executeBatch(sql, st::executeBatch);
+		return tracer.execute(sql, command(), st::executeBatch, JDBCActionTracer::toLongArray);
 	}
 	
 	@Override
 	public long[] executeLargeBatch() throws SQLException {
-		return tracer.executeLargeBatch(sql, st::executeLargeBatch);
+		return tracer.execute(sql, command(), st::executeLargeBatch, n-> n);
+	}
+	
+	private SqlCommand command() {
+		if(!parsed) {
+			command = nonNull(sql) ? mainCommand(sql) : null;
+			parsed = true;
+		}
+		return command;
 	}
 }
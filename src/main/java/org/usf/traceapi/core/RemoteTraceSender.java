@@ -2,16 +2,24 @@ package org.usf.traceapi.core;
 
 import static java.time.Duration.ofSeconds;
 import static java.util.Collections.singletonList;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpMethod.PUT;
+import static org.springframework.http.MediaType.parseMediaType;
+import static org.usf.traceapi.core.JsonSessionCodec.createObjectMapper;
+import static org.usf.traceapi.core.Samplers.sessionFilter;
+import static org.usf.traceapi.core.SessionCodec.codec;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-
 /**
  * 
  * @author u$f
@@ -19,8 +27,11 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
  */
 public final class RemoteTraceSender implements TraceHandler {
 	
+	private static final int BUFFER_SIZE = 8 * 1024;
+	
 	private final TraceConfigurationProperties properties;
 	private final RestTemplate template;
+	private final SessionCodec codec;
 	private final ScheduledSessionDispatcher dispatcher;
 
 	public RemoteTraceSender(TraceConfigurationProperties properties) {
@@ -28,9 +39,14 @@ public final class RemoteTraceSender implements TraceHandler {
 	}
 	
 	public RemoteTraceSender(TraceConfigurationProperties prop, RestTemplate template) {
+		this(prop, template, codec(prop.getFormat()));
+	}
+	
+	public RemoteTraceSender(TraceConfigurationProperties prop, RestTemplate template, SessionCodec codec) {
 		this.properties = prop;
 		this.template = template;
-		this.dispatcher = new ScheduledSessionDispatcher(prop, Session::wasCompleted, this::sendCompleted);
+		this.codec = codec;
+		this.dispatcher = new ScheduledSessionDispatcher(prop, sessionFilter(prop), this::sendCompleted);
 	}
 	
 	@Override
@@ -38,25 +54,65 @@ public final class RemoteTraceSender implements TraceHandler {
 		dispatcher.add(session);
 	}
 	
+	@Override
+	public void complete(Session session) {
+		dispatcher.complete(session);
+	}
+	
+	@Override
+	public void shutdown() throws InterruptedException {
+		dispatcher.shutdown();
+	}
+	
     private boolean sendCompleted(int attemps, List<? extends Session> sessions) {
-		template.put(properties.getUrl(), sessions);
+		template.execute(properties.getUrl(), PUT, req-> writeSessions(req, sessions), null);
 		return true;
     }
+    
+    void writeSessions(ClientHttpRequest req, List<? extends Session> sessions) throws IOException {
+    	req.getHeaders().setContentType(parseMediaType(codec.getContentType()));
+    	if(properties.isCompress()) {
+    		req.getHeaders().set(CONTENT_ENCODING, "gzip");
+    		var out = new GzipBody(req.getBody());
+    		try {
+    			codec.write(out, sessions);
+    			out.finish(); //do not close request body
+    		}
+    		finally {
+    			out.end(); //native deflater : even on failure
+    		}
+    	}
+    	else {
+    		codec.write(req.getBody(), sessions); //streaming
+    	}
+    }
 
 	private static RestTemplate createRestTemplate() {
 		var convert = new MappingJackson2HttpMessageConverter(createObjectMapper());
 	    var timeout = ofSeconds(30);
 	    return new RestTemplateBuilder()
 	    		.messageConverters(singletonList(convert))
+	    		.requestFactory(RemoteTraceSender::streamingRequestFactory)
 				.setConnectTimeout(timeout)
 				.setReadTimeout(timeout)
 				.build();
 	}
 	
-	private static ObjectMapper createObjectMapper() {
-	     ObjectMapper mapper = new ObjectMapper();
-	     mapper.registerModule(new JavaTimeModule()); //new ParameterNamesModule() not required
-//	     mapper.disable(WRITE_DATES_AS_TIMESTAMPS) important! write Instant as double
-	     return mapper;
+	private static SimpleClientHttpRequestFactory streamingRequestFactory() {
+		var factory = new SimpleClientHttpRequestFactory();
+		factory.setBufferRequestBody(false); //chunked : do not materialize the payload
+		factory.setChunkSize(BUFFER_SIZE);
+		return factory;
+	}
+
+	private static final class GzipBody extends GZIPOutputStream { //finish() does not release the native deflater
+		
+		GzipBody(OutputStream out) throws IOException {
+			super(out, BUFFER_SIZE);
+		}
+		
+		void end() {
+			def.end();
+		}
 	}
 }
@@ -2,7 +2,6 @@ package org.usf.traceapi.core;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.Instant;
 
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.Delegate;
@@ -18,7 +17,7 @@ public final class ResultSetWrapper implements ResultSet {
 	@Delegate
 	private final ResultSet rs;
 	private final JDBCActionTracer tracer;
-	private final Instant start;
+	private final long start; //nanoTime
 	private int rows;
 
 	@Override
@@ -0,0 +1,122 @@
+package org.usf.traceapi.core;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer / single-consumer queue (array ring with per-slot sequences).
+ * {@link #offer(Object)} never blocks : it returns false when the ring is full.
+ * {@link #poll()} must be called by one consumer thread at a time.
+ *
+ * @author u$f
+ *
+ */
+final class RingBuffer<T> extends AbstractQueue<T> {
+
+	private final int capacity;
+	private final int length; //slots, at least 2
+	private final AtomicReferenceArray<T> items;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong(); //producers
+	private volatile long head; //single consumer
+
+	RingBuffer(int capacity) {
+		if(capacity < 1) {
+			throw new IllegalArgumentException("capacity=" + capacity + " < 1");
+		}
+		this.capacity = capacity;
+		this.length = Math.max(2, capacity); //a single slot cannot distinguish full from free
+		this.items = new AtomicReferenceArray<>(length);
+		this.sequences = new AtomicLongArray(length);
+		for(var i=0; i<length; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	@Override
+	public boolean offer(T o) {
+		if(o == null) {
+			throw new NullPointerException();
+		}
+		var pos = tail.get();
+		for(;;) {
+			if(pos - head >= capacity) { //full
+				return false;
+			}
+			var idx = index(pos);
+			var dif = sequences.get(idx) - pos;
+			if(dif == 0) { //free slot
+				if(tail.compareAndSet(pos, pos+1)) {
+					items.lazySet(idx, o);
+					sequences.set(idx, pos+1); //publish
+					return true;
+				}
+				pos = tail.get();
+			}
+			else if(dif < 0) { //slot not yet consumed
+				return false;
+			}
+			else { //another producer took this slot
+				pos = tail.get();
+			}
+		}
+	}
+
+	@Override
+	public T poll() {
+		var pos = head;
+		var idx = index(pos);
+		if(sequences.get(idx) != pos+1) { //empty or not yet published
+			return null;
+		}
+		var o = items.get(idx);
+		items.lazySet(idx, null);
+		sequences.set(idx, pos+length); //release slot
+		head = pos+1;
+		return o;
+	}
+
+	@Override
+	public T peek() {
+		var pos = head;
+		var idx = index(pos);
+		return sequences.get(idx) == pos+1 ? items.get(idx) : null;
+	}
+
+	@Override
+	public int size() {
+		var n = tail.get() - head;
+		return n < 0 ? 0 : (int) Math.min(n, capacity);
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * weakly consistent snapshot, published items only
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		var c = new ArrayList<T>(size());
+		var end = tail.get();
+		for(var pos=head; pos<end; pos++) {
+			var idx = index(pos);
+			if(sequences.get(idx) == pos+1) {
+				var o = items.get(idx);
+				if(o != null) {
+					c.add(o);
+				}
+			}
+		}
+		return c.iterator();
+	}
+
+	private int index(long pos) {
+		return (int) (pos % length);
+	}
+}
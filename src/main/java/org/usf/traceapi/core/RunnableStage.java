@@ -2,8 +2,6 @@ package org.usf.traceapi.core;
 
 import static java.lang.String.format;
 
-import java.time.Instant;
-
 import lombok.Getter;
 import lombok.Setter;
 
@@ -14,12 +12,10 @@ import lombok.Setter;
  */
 @Getter
 @Setter
-public class RunnableStage implements Metric, MutableStage {
+public class RunnableStage extends TimedMetric implements MutableStage {
 	
 	private String name;
 	private String location;
-	private Instant start;
-	private Instant end;
 	private String user;
 	private String threadName;
 	private ExceptionInfo exception;
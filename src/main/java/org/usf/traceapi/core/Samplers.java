@@ -0,0 +1,78 @@
+package org.usf.traceapi.core;
+
+import static java.util.Objects.nonNull;
+import static org.springframework.beans.BeanUtils.copyProperties;
+import static org.usf.traceapi.core.Helper.log;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class Samplers {
+	
+	static final int MAX_ENDPOINTS = 1_000; //cardinality guard
+	static final String OTHER = "*";
+
+	/**
+	 * dispatcher admission filter : tail sampling, throughput budget applied to the sampled rest only (nullable)
+	 */
+	static SessionSampler sessionFilter(TraceConfigurationProperties prop) {
+		var budget = prop.getBudget() > 0 ? new BudgetSampler(prop.getBudget()) : null;
+		return prop.isTailSampling() 
+				? new TailSampler(prop.getTailRate(), prop.getTailPercentile(), budget) 
+				: budget;
+	}
+
+	/**
+	 * endpoint name : {@link EndpointResolver} matched pattern | {@link TraceableStage#value()}, never the raw path (cardinality)
+	 */
+	static String endpoint(Session s) {
+		return s instanceof RunnableStage st && nonNull(st.getName()) ? st.getName() : OTHER;
+	}
+	
+	/**
+	 * known endpoints keep their own entry, new ones share {@link #OTHER} beyond {@link #MAX_ENDPOINTS}
+	 */
+	static <T> T perEndpoint(Map<String, T> map, Session s, Supplier<T> factory) {
+		var key = endpoint(s);
+		var v = map.get(key);
+		return nonNull(v) ? v : map.computeIfAbsent(map.size() < MAX_ENDPOINTS ? key : OTHER, k-> factory.get());
+	}
+	
+	/**
+	 * per handler sample rate : shallow copy (shared sub requests), the emitted session is shared by all handlers
+	 */
+	static Session withSampleRate(Session s, double rate) {
+		Session c;
+		if(s instanceof ApiSession) {
+			c = new ApiSession(s.getRequests(), s.getQueries(), s.getStages());
+			copyProperties(s, c, "location"); //unsupported, see ApiRequest
+		}
+		else if(s instanceof MainSession) {
+			c = new MainSession(s.getRequests(), s.getQueries(), s.getStages());
+			copyProperties(s, c);
+		}
+		else {
+			log.warn("cannot copy session type {}, sample rate not adjusted", s.getClass());
+			return s;
+		}
+		c.setSampleRate(rate);
+		return c;
+	}
+	
+	static boolean hasException(Session s) {
+		return s instanceof RunnableStage st && nonNull(st.getException());
+	}
+	
+	static boolean isServerError(Session s) {
+		return s instanceof ApiRequest req && req.getStatus() >= 500;
+	}
+}
@@ -1,23 +1,54 @@
 package org.usf.traceapi.core;
 
-import static java.util.Collections.addAll;
+import static java.lang.Integer.MAX_VALUE;
+import static java.lang.System.nanoTime;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.ThreadLocalRandom.current;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toCollection;
+import static org.usf.traceapi.core.EvictionPolicy.category;
+import static org.usf.traceapi.core.EvictionPolicy.evictionPolicy;
 import static org.usf.traceapi.core.Helper.log;
+import static org.usf.traceapi.core.Samplers.withSampleRate;
+import static org.usf.traceapi.core.State.CACHE;
 import static org.usf.traceapi.core.State.DISABLE;
 import static org.usf.traceapi.core.State.DISPACH;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import lombok.Getter;
 
@@ -28,33 +59,79 @@ import lombok.Getter;
  */
 public final class ScheduledSessionDispatcher {
 	
+	private static final int REPLAY_MAX = 10; //spilled batches per replay
+	private static final int COUNTERS_DELAY = 1; //minutes
+	//estimated serialized sizes (JSON)
+	private static final int SESSION_SIZE = 600;
+	private static final int REQUEST_SIZE = 400;
+	private static final int QUERY_SIZE = 300;
+	private static final int ACTION_SIZE = 100;
+	private static final int STAGE_SIZE = 200;
+	
 	final ScheduledExecutorService executor = newSingleThreadScheduledExecutor();
 	
-    private final List<Session> queue;
+    private final Queue<Session> queue; //completed sessions, lock-free : producers never block
+    private final Map<Session, Long> pending; //incomplete sessions => deadline (nanos)
+    private final List<Session> backlog; //dispatcher side only
     private final SessionDispatcherProperties properties;
-    private final Dispatcher dispatcher;
+    private final AsyncDispatcher dispatcher;
     private final Predicate<Session> filter;
+    private final SpillLog spill; //nullable
+    private final SessionCodec spillCodec = new BinarySessionCodec();
+    private final EvictionPolicy eviction;
+    private final Map<String, LongAdder> evictions = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+    private final Semaphore inflight; //shared by workers
+    private final AtomicInteger failures = new AtomicInteger(); //consecutive failed rounds
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    private final AtomicBoolean flushing = new AtomicBoolean(); //early dispatch requested
+    private final AtomicInteger readyCount = new AtomicInteger();
+    private final AtomicLong readyBytes = new AtomicLong(); //estimated
     @Getter
     private volatile State state = DISPACH;
-    private int attempts;
+    private volatile boolean tripped; //circuit opened by failures : CACHE + probing
+    private volatile long retryAt = nanoTime(); //backoff
+    private Map<String, Long> logged = emptyMap(); //last logged counters
+    private Map<String, Long> loggedSamplings = emptyMap();
     
     public ScheduledSessionDispatcher(SessionDispatcherProperties properties, Dispatcher dispatcher) {
     	this(properties, null, dispatcher);
     }
     
 	public ScheduledSessionDispatcher(SessionDispatcherProperties properties, Predicate<Session> filter, Dispatcher dispatcher) {
-		this.queue = new ArrayList<>(properties.getBufferSize());
+		this(properties, filter, (AsyncDispatcher) (n, cs)-> completedFuture(dispatcher.dispatch(n, cs))); //blocks worker
+	}
+	
+	public ScheduledSessionDispatcher(SessionDispatcherProperties properties, Predicate<Session> filter, AsyncDispatcher dispatcher) {
+		this.queue = properties.getBufferMaxSize() > -1 
+				? new RingBuffer<>(properties.getBufferMaxSize()) 
+				: new ConcurrentLinkedQueue<>(); //unlimited
+		this.pending = new ConcurrentHashMap<>();
+		this.backlog = new ArrayList<>(properties.getBufferSize());
 		this.properties = properties;
 		this.dispatcher = dispatcher;
 		this.filter = filter;
+		this.spill = createSpillLog(properties);
+		this.eviction = evictionPolicy(properties.getEvictionPolicy());
+		this.workers = newFixedThreadPool(properties.getWorkers());
+		this.inflight = new Semaphore(properties.getWorkers());
     	executor.scheduleWithFixedDelay(this::tryDispatch, properties.getDelay(), properties.getDelay(), properties.getUnit());
+    	executor.scheduleWithFixedDelay(this::logCounters, COUNTERS_DELAY, COUNTERS_DELAY, MINUTES);
 	}
 
 	public boolean add(Session... sessions) {
 		if(state != DISABLE) { // CACHE | DISPATCH
-			doSync(q-> addAll(q, sessions));
+			var n = 0;
+			for(var s : sessions) {
+				if(!submit(s)) { //buffer full
+					n++;
+				}
+			}
+			if(n > 0) {
+				log.warn("{} sessions rejected, buffer.size={}", n, properties.getBufferMaxSize());
+			}
 			log.trace("{} sessions buffered", queue.size());
-			return true;
+			return n == 0;
 		}
     	else {
     		log.warn("{} sessions rejected, dispatcher.state={}", sessions.length, state);
@@ -62,103 +139,496 @@ public final class ScheduledSessionDispatcher {
     	}
 	}
 	
+	private boolean submit(Session s) {
+		if(s.wasCompleted()) {
+			return ready(s);
+		}
+		if(properties.getPendingMaxSize() > -1 && pending.size() >= properties.getPendingMaxSize()) {
+			log.debug("too many pending sessions, pendingMaxSize={} : {}", properties.getPendingMaxSize(), s);
+			orphan("overflow");
+			return ready(s); //not tracked : dispatched incomplete
+		}
+		pending.put(s, nanoTime() + properties.getUnit().toNanos(properties.getLockTimeout()));
+		return !s.wasCompleted() || complete(s); //unlocked in the meantime
+	}
+	
+	/**
+	 * move a pending session to the ready queue, see {@link Session#unlock()}
+	 */
+	public boolean complete(Session session) {
+		return isNull(pending.remove(session)) || ready(session); //once
+	}
+	
+	private boolean ready(Session s) {
+		if(!queue.offer(s)) { //full : never blocks, admitted by the scheduler thread only
+			evictions.computeIfAbsent("rejected." + category(s), k-> new LongAdder()).increment();
+			requestFlush();
+			return false;
+		}
+		var count = readyCount.incrementAndGet();
+		var bytes = properties.getFlushBytes() > 0 ? readyBytes.addAndGet(estimateSize(s)) : 0;
+		if((properties.getFlushSize() > 0 && count >= properties.getFlushSize()) 
+				|| (properties.getFlushBytes() > 0 && bytes >= properties.getFlushBytes())) {
+			requestFlush();
+		}
+		return true;
+	}
+	
+	private void requestFlush() {
+		if(flushing.compareAndSet(false, true)) { //once per tick
+			try {
+				executor.execute(()-> {
+					flushing.set(false);
+					tryDispatch();
+				});
+			}
+			catch (RejectedExecutionException e) { //shutdown
+				flushing.set(false);
+			}
+		}
+	}
+	
 	public void updateState(State state) {
 		this.state = state;
+		this.tripped = false; //manual
 	}
 	
-    private void tryDispatch() {
-    	if(state == DISPACH) {
-    		dispatch();
+    void tryDispatch() {
+    	doSync(this::admit); //whatever the state : eviction policy & spill
+    	if(state == DISPACH || tripped) {
+    		if(nanoTime() - retryAt >= 0) {
+    			dispatch();
+    		}
+    		else {
+    			log.trace("dispatch delayed, failures={}", failures.get()); //do not serialize backlog
+    		}
     	}
     	else {
     		log.warn("dispatcher.state={}", state);
     	}
     }
 
-    private void dispatch() {
-    	var cs = popSessions();
-        if(!cs.isEmpty()) {
-	        log.trace("scheduled dispatching {} sessions..", cs.size());
-	        try {
-	        	if(dispatcher.dispatch(++attempts, cs)) {
-	        		attempts=0;
-	        	}
-	    	}
-	    	catch (Exception e) {// do not throw exception : retry later
-	    		log.warn("error while dispatching {} sessions, attempts={} because : {}", cs.size(), attempts, e.getMessage()); //do not log exception stack trace
-			}
-	        if(attempts > 0) { //exception | !dispatch
-	        	doSync(q-> {
-	        		q.addAll(0, cs);
-		    		if(properties.getBufferMaxSize() > -1 && q.size() > properties.getBufferMaxSize()) {
-		    			var diff = q.size() - properties.getBufferMaxSize();
-		    			q.subList(properties.getBufferMaxSize(), cs.size()).clear();  //remove exceeding cache sessions (LIFO)
-			    		log.warn("{} last sessions have been removed from buffer", diff); 
-		    		}
-				});
-	        }
+    void dispatch() {
+    	var probe = tripped; //half-open : single small batch
+    	var n = 0;
+    	while(n < (probe ? 1 : properties.getWorkers()) && inflight.tryAcquire()) { //free workers
+    		n++;
+    	}
+    	if(n == 0) {
+    		log.trace("all dispatchers are busy");
+    		return; //backpressure : keep buffering
+    	}
+    	var cs = popSessions(probe ? properties.getProbeSize() : MAX_VALUE);
+    	if(!cs.isEmpty()) {
+	        log.trace("{} {} sessions..", probe ? "probing with" : "scheduled dispatching", cs.size());
+    		var size = (cs.size() + n - 1) / n;
+    		var batches = new ArrayList<List<Session>>(n);
+    		var i = 0;
+    		while(i<cs.size() && batches.size() < n) { //pipelined batches
+    			var j = nextChunk(cs, i, size);
+    			batches.add(new SessionList(cs.subList(i, j)));
+    			i = j;
+    		}
+    		if(i < cs.size()) { //maxBatchBytes : no free worker
+    			var rest = cs.subList(i, cs.size());
+    			log.trace("{} sessions postponed", rest.size());
+    			doSync(q-> q.addAll(0, rest)); //before sending : flushed on success
+    		}
+    		n -= batches.size();
+    		var round = new Round(batches.size());
+    		for(var batch : batches) {
+    			workers.execute(()-> send(batch, round)); //permit released on completion
+    		}
+    	}
+        if(n > 0 && nonNull(spill) && failures.get() == 0 && replaying.compareAndSet(false, true)) {
+        	n--;
+        	execute(()-> {
+        		try {
+        			replay();
+        		}
+        		finally {
+        			replaying.set(false);
+        		}
+        	});
+        }
+        inflight.release(n); //unused workers
+    }
+    
+    private int nextChunk(List<Session> cs, int from, int maxCount) {
+    	var to = Math.min(cs.size(), from + maxCount);
+    	if(properties.getMaxBatchBytes() > 0) {
+    		var bytes = 0L;
+    		for(var i=from; i<to; i++) {
+    			bytes += estimateSize(cs.get(i));
+    			if(bytes > properties.getMaxBatchBytes() && i > from) { //at least one session
+    				return i;
+    			}
+    		}
+    	}
+    	return to;
+    }
+    
+    private void execute(Runnable task) {
+    	workers.execute(()-> {
+    		try {
+    			task.run();
+    		}
+    		finally {
+    			inflight.release();
+    		}
+    	});
+    }
+    
+    private void send(List<Session> cs, Round round) {
+    	var n = failures.get() + 1; //round attempt
+    	CompletableFuture<Boolean> res;
+    	try {
+    		res = dispatcher.dispatch(n, cs);
+    	}
+    	catch (Exception e) {
+    		res = failedFuture(e);
+    	}
+    	res.whenComplete((ok, e)-> {
+    		var done = nonNull(ok) && ok;
+    		try {
+    			onDispatch(n, cs, done, e);
+    			round.complete(done);
+    		}
+    		finally {
+    			inflight.release(); //in-flight until completion
+    		}
+    		if(done && applySync(q-> !q.isEmpty())) { //postponed sessions
+    			requestFlush();
+    		}
+    	});
+    }
+    
+    private void onDispatch(int n, List<Session> cs, boolean ok, Throwable e) {
+    	if(nonNull(e)) {// do not throw exception : retry later
+    		log.warn("error while dispatching {} sessions, attempts={} because : {}", cs.size(), n, e.getMessage()); //do not log exception stack trace
+    	}
+        if(!ok) { //exception | !dispatch
+        	doSync(q-> {
+        		q.addAll(0, cs);
+        		trim(q);
+			});
         }
     }
+    
+    /**
+     * backoff &amp; circuit breaker : counts consecutive failed rounds, not batches (workers)
+     */
+    private void onRound(boolean ok) {
+    	if(ok) {
+    		failures.set(0);
+        	retryAt = nanoTime();
+        	if(tripped) {
+        		tripped = false;
+        		state = DISPACH;
+        		log.info("collector is back, circuit closed");
+        	}
+    	}
+    	else {
+    		var n = failures.incrementAndGet();
+        	retryAt = nanoTime() + backoff(n);
+        	if(n >= properties.getBreakerThreshold() && state == DISPACH) {
+        		tripped = true;
+        		state = CACHE;
+        		log.warn("circuit opened after {} failed dispatches", n);
+        	}
+    	}
+    }
+    
+    /**
+     * evicts (spills) sessions beyond bufferMaxSize, see {@link EvictionPolicy}
+     */
+    private void trim(List<Session> q) {
+		if(properties.getBufferMaxSize() > -1 && q.size() > properties.getBufferMaxSize()) {
+			var exceed = evict(q, q.size() - properties.getBufferMaxSize(), eviction);
+			var spilled = spill(exceed);
+			if(spilled) {
+	    		log.info("{} sessions have been spilled to disk", exceed.size());
+			}
+			else {
+	    		log.warn("{} sessions have been removed from buffer", exceed.size());
+			}
+			for(var s : exceed) {
+				evictions.computeIfAbsent((spilled ? "spilled." : "dropped.") + category(s), k-> new LongAdder()).increment();
+			}
+		}
+    }
+    
+    /**
+     * removes the k lowest priority sessions, see {@link EvictionPolicy}.
+     * O(n log k) per call : priorities computed once, bounded heap of k candidates. 
+     * Called once per overflow batch (tick, failed batch), not per insert, see EvictionBenchmark
+     */
+    static List<Session> evict(List<Session> q, int k, EvictionPolicy policy) {
+    	var prio = new long[q.size()];
+    	for(var i=0; i<prio.length; i++) {
+    		prio[i] = policy.priority(q.get(i));
+    	}
+    	Comparator<Integer> order = (a, b)-> prio[a] == prio[b] 
+    			? Integer.compare(b, a) //newest first
+    			: Long.compare(prio[a], prio[b]);
+    	var heap = new PriorityQueue<Integer>(k, order.reversed()); //k candidates, root : first kept
+    	for(var i=0; i<prio.length; i++) {
+    		if(heap.size() < k) {
+    			heap.add(i);
+    		}
+    		else if(order.compare(i, heap.peek()) < 0) {
+    			heap.poll();
+    			heap.add(i);
+    		}
+    	}
+    	var drop = new boolean[prio.length];
+    	heap.forEach(i-> drop[i] = true);
+    	var evicted = new SessionList(k);
+    	var j = 0;
+    	for(var i=0; i<prio.length; i++) { //keep order
+    		var s = q.get(i);
+    		if(drop[i]) {
+    			evicted.add(s);
+    		}
+    		else {
+    			q.set(j++, s);
+    		}
+    	}
+    	q.subList(j, q.size()).clear();
+    	return evicted;
+    }
+    
+    /**
+     * evicted sessions by outcome and category, ex: dropped.server-error, rejected.success (ring buffer full), 
+     * incomplete sessions removed from pending by reason, ex: orphan.timeout, orphan.overflow
+     */
+    public Map<String, Long> getEvictions() {
+    	var map = new TreeMap<String, Long>();
+    	evictions.forEach((k, v)-> map.put(k, v.sum()));
+    	return map;
+    }
+    
+    /**
+     * periodic report, only if changed
+     */
+    void logCounters() {
+    	var counters = getEvictions();
+    	if(!counters.equals(logged)) {
+    		log.info("dispatcher evictions : {}", counters);
+    		logged = counters;
+    	}
+    	var samplings = getSamplings();
+    	if(!samplings.equals(loggedSamplings)) {
+    		log.info("dispatcher samplings : {}", samplings);
+    		loggedSamplings = samplings;
+    	}
+    }
+    
+    /**
+     * tail sampling decisions by reason, ex: kept.slow, dropped.budget, see {@link TailSampler}
+     */
+    public Map<String, Long> getSamplings() {
+    	return filter instanceof TailSampler ts ? ts.getCounters() : emptyMap();
+    }
+    
+    /**
+     * exponential backoff with jitter : [d/2, d], d = min(delay * 2^(attempts-1), retryMaxDelay)
+     */
+    long backoff(int attempts) {
+    	var unit = properties.getUnit();
+    	var max = unit.toNanos(properties.getRetryMaxDelay());
+    	var d = Math.min(max, unit.toNanos(properties.getDelay()) << Math.min(attempts - 1, 20));
+    	if(d <= 0) { //overflow
+    		d = max;
+    	}
+    	return d/2 + current().nextLong(d/2 + 1);
+    }
+    
+    /**
+     * wait for in-flight batches
+     */
+    void awaitDispatch() throws InterruptedException {
+    	inflight.acquire(properties.getWorkers());
+    	inflight.release(properties.getWorkers());
+    }
+    
+    private boolean spill(List<Session> sessions) {
+    	if(nonNull(spill)) {
+	    	try {
+	    		var out = new ByteArrayOutputStream();
+	    		spillCodec.write(out, sessions);
+	    		return spill.append(out.toByteArray());
+	    	}
+	    	catch (IOException e) {
+	    		log.warn("error while spilling {} sessions because : {}", sessions.size(), e.getMessage());
+	    	}
+    	}
+    	return false;
+    }
+    
+    private void replay() {
+    	try {
+	    	byte[] data;
+	    	for(var i=0; i<REPLAY_MAX && nonNull(data = spill.peek()); i++) {
+	    		List<Session> cs;
+	    		try {
+	    			cs = spillCodec.read(new ByteArrayInputStream(data));
+	    		}
+	    		catch (IOException e) {
+	    			log.warn("corrupted spilled batch skipped because : {}", e.getMessage());
+	    			spill.commit();
+	    			continue;
+	    		}
+	    		log.trace("replaying {} spilled sessions..", cs.size());
+	    		if(!dispatcher.dispatch(1, cs).join()) {
+	    			break;
+	    		}
+	    		spill.commit();
+	    	}
+    	}
+    	catch (Exception e) {// do not throw exception : retry later
+    		log.warn("error while replaying spilled sessions because : {}", e.getMessage());
+		}
+    }
 
     public List<Session> peekSessions() {
     	return applySync(q-> {
-    		if(q.isEmpty()) {
+    		if(q.isEmpty() && queue.isEmpty()) {
     			return emptyList();
     		}
-    		var s = q.stream();
-    		if(nonNull(filter)) {
-    			s = s.filter(filter);
-    		}
-    		return s.collect(toCollection(SessionList::new));
+    		return Stream.concat(q.stream(), queue.stream()) //queue : not yet admitted, see filter
+    				.collect(toCollection(SessionList::new));
     	});
     }
     
     List<Session> popSessions() {
+    	return popSessions(MAX_VALUE);
+    }
+    
+    List<Session> popSessions(int max) {
     	return applySync(q-> {
+    		admit(q);
     		if(q.isEmpty()) {
     			return emptyList();
     		}
-    		if(isNull(filter)) {
-    			var c = new SessionList(q);
-    			q.clear();
-    			return c;
-    		}
-    		var c = new SessionList(q.size());
-    		for(var it=q.iterator(); it.hasNext();) {
-    			var o = it.next();
-    			if(filter.test(o)) {
-    				c.add(o);
-    				it.remove();
-    			}
-    		}
+    		var h = q.size() > max ? q.subList(0, max) : q; //oldest first
+    		var c = new SessionList(h);
+    		h.clear();
     		return c;
     	});
     }
+    
+    /**
+     * drains ready sessions &amp; orphan locks into the backlog, single consumer : backlog lock held
+     */
+    private void admit(List<Session> q) {
+		var n = 0;
+		for(Session s; nonNull(s = queue.poll()); n++) {
+			accept(q, s);
+		}
+		readyCount.addAndGet(-n);
+		readyBytes.set(0); //estimate
+		if(properties.getLockTimeout() > -1 && !pending.isEmpty()) {
+			var now = nanoTime();
+			pending.forEach((s, t)-> {
+				if(now - t > 0 && nonNull(pending.remove(s))) { //orphan lock
+					log.warn("session lock timeout, lock={} : {}", s.getLock().get(), s);
+					orphan("timeout");
+					accept(q, s);
+				}
+			});
+		}
+		trim(q);
+    }
+    
+    private void orphan(String reason) {
+    	evictions.computeIfAbsent("orphan." + reason, k-> new LongAdder()).increment();
+    }
+    
+    private void accept(List<Session> q, Session s) {
+    	if(filter instanceof SessionSampler ss) { //tested once
+    		var p = ss.sample(s);
+    		if(p > 0) {
+    			q.add(p < 1 ? withSampleRate(s, s.getSampleRate() * p) : s); //shared session unchanged
+    		}
+    	}
+    	else if(isNull(filter) || filter.test(s)) {
+    		q.add(s);
+    	}
+    }
 
     private void doSync(Consumer<List<Session>> cons) {
-    	synchronized(queue){
-			cons.accept(queue);
+    	synchronized(backlog){
+			cons.accept(backlog);
 		}
     }
 
     private <T> T applySync(Function<List<Session>, T> fn) {
-		synchronized(queue){
-			return fn.apply(queue);
+		synchronized(backlog){
+			return fn.apply(backlog);
 		}
     }
  
     public void shutdown() throws InterruptedException {
+    	var last = state;
     	updateState(DISABLE); //stop add Sessions
     	log.info("shutting down scheduler service");
     	try {
     		executor.shutdown(); //cancel future
     		while(!executor.awaitTermination(5, SECONDS)); //wait for last save complete
+    		awaitDispatch();
     	}
     	finally {
-    		tryDispatch();
+    		if(last == DISPACH) {
+    			dispatch(); //last dispatch
+    		}
+    		workers.shutdown();
+    		while(!workers.awaitTermination(5, SECONDS)); //wait for last send complete
+    		logCounters(); //last report
+    		if(nonNull(spill)) {
+    			try {
+    				spill.close();
+    			}
+    			catch (IOException e) {
+    				log.warn("error while closing spill log", e);
+    			}
+    		}
 		}
     }
     
+    /**
+     * estimated serialized size, used by flushBytes &amp; maxBatchBytes
+     */
+    static long estimateSize(Session s) {
+    	long n = SESSION_SIZE 
+    			+ (long) s.getRequests().size() * REQUEST_SIZE 
+    			+ (long) s.getStages().size() * STAGE_SIZE;
+    	for(var q : s.getQueries()) {
+    		n += QUERY_SIZE + (isNull(q.getActions()) ? 0 : q.getActions().size() * ACTION_SIZE);
+    	}
+    	if(s instanceof ApiRequest req) {
+    		n += length(req.getPath()) + length(req.getQuery());
+    	}
+    	return n;
+    }
+    
+    private static int length(String s) {
+    	return isNull(s) ? 0 : s.length();
+    }
+    
+    private static SpillLog createSpillLog(SessionDispatcherProperties properties) {
+    	if(nonNull(properties.getSpillDirectory()) && !properties.getSpillDirectory().isBlank()) {
+    		try {
+    			return new SpillLog(Path.of(properties.getSpillDirectory()), 
+    					properties.getSpillSegmentSize(), properties.getSpillMaxSize());
+    		}
+    		catch (Exception e) {
+    			log.warn("cannot open spill log, sessions will not be spilled to disk", e);
+    		}
+    	}
+    	return null;
+    }
+    
 	//jackson issue @JsonTypeInfo : https://github.com/FasterXML/jackson-databind/issues/23
 	@SuppressWarnings("serial") 
 	static final class SessionList extends ArrayList<Session> {
@@ -176,9 +646,37 @@ public final class ScheduledSessionDispatcher {
 		}
 	}
 	
+	/**
+	 * batches dispatched by the same tick : failed if any batch failed
+	 */
+	private final class Round {
+		
+		private final AtomicInteger remaining;
+		private volatile boolean failed;
+		
+		Round(int batches) {
+			this.remaining = new AtomicInteger(batches);
+		}
+		
+		void complete(boolean ok) {
+			if(!ok) {
+				failed = true;
+			}
+			if(remaining.decrementAndGet() == 0) { //last batch
+				onRound(!failed);
+			}
+		}
+	}
+	
 	@FunctionalInterface
 	public interface Dispatcher {
 		
 		boolean dispatch(int attempts, List<Session> sessions);
 	}
+	
+	@FunctionalInterface
+	public interface AsyncDispatcher {
+		
+		CompletableFuture<Boolean> dispatch(int attempts, List<Session> sessions);
+	}
 }
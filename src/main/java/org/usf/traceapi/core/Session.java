@@ -35,14 +35,24 @@ public interface Session extends Metric {
 	
 	void append(RunnableStage stage); // sub stages
 	
+	double getSampleRate(); //effective sampling probability, server side weight : 1/sampleRate
+	
+	void setSampleRate(double sampleRate);
+	
 	AtomicInteger getLock();
 	
+	boolean isEmitted(); //handed to handlers, see TraceMultiCaster::emit
+	
+	void setEmitted(boolean emitted);
+	
 	default void lock(){
 		getLock().incrementAndGet();
 	}
 	
 	default void unlock() {
-		getLock().decrementAndGet();
+		if(getLock().decrementAndGet() == 0 && isEmitted()) {
+			TraceMultiCaster.complete(this); //deferred dispatch
+		}
 	}
 	
 	default boolean wasCompleted() {
@@ -0,0 +1,46 @@
+package org.usf.traceapi.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Session batch (de)serialization, shared by client &amp; server side.
+ *
+ * @author u$f
+ *
+ */
+public interface SessionCodec {
+
+	String getContentType();
+
+	/**
+	 * streaming writer, {@link SessionWriter#close()} ends the batch but does not close the target stream
+	 */
+	SessionWriter writer(OutputStream out) throws IOException;
+
+	List<Session> read(InputStream in) throws IOException;
+
+	default void write(OutputStream out, List<? extends Session> sessions) throws IOException {
+		try(var w = writer(out)) {
+			for(var s : sessions) {
+				w.write(s);
+			}
+		}
+	}
+
+	static SessionCodec codec(String format) {
+		return switch (format.toLowerCase()) {
+		case "json" -> new JsonSessionCodec();
+		case "binary" -> new BinarySessionCodec();
+		default -> throw new IllegalArgumentException("unsupported format : " + format);
+		};
+	}
+
+	interface SessionWriter extends Closeable {
+
+		void write(Session session) throws IOException;
+	}
+}
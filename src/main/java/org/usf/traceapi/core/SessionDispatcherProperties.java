@@ -16,6 +16,19 @@ public class SessionDispatcherProperties {
 	private TimeUnit unit = SECONDS;
 	private int bufferSize = 100; // {n} sessions
 	private int bufferMaxSize = 5_000; // {n} sessions, -1 : unlimited
+	private int workers = 1; // concurrent dispatches
+	private int flushSize = -1; // ready sessions triggering an early dispatch, -1 : disabled
+	private long flushBytes = -1; // estimated ready bytes triggering an early dispatch, -1 : disabled
+	private long maxBatchBytes = -1; // estimated bytes per request, -1 : unlimited
+	private int retryMaxDelay = 300; // backoff upper bound in {unit}
+	private int breakerThreshold = 5; // consecutive failures before opening the circuit
+	private int probeSize = 10; // half-open batch size
+	private String evictionPolicy = "lifo"; // lifo, errors, slowest, fast-success
+	private int lockTimeout = 300; // incomplete session timeout in {unit}, -1 : unlimited
+	private int pendingMaxSize = 10_000; // incomplete sessions, dispatched as orphans beyond, -1 : unlimited
+	private String spillDirectory = ""; // blank : disabled
+	private int spillSegmentSize = 16 << 20; // bytes
+	private long spillMaxSize = 256L << 20; // bytes
 
 	public void setDelay(int delay) {
 		this.delay = requiePositiveValue(delay, "delay");
@@ -30,7 +43,60 @@ public class SessionDispatcherProperties {
 	}
 
 	public void setBufferMaxSize(int bufferMaxSize) {
-		this.bufferMaxSize = bufferMaxSize;
+		this.bufferMaxSize = bufferMaxSize == -1 ? -1 : requiePositiveValue(bufferMaxSize, "bufferMaxSize");
+	}
+
+	public void setWorkers(int workers) {
+		this.workers = requiePositiveValue(workers, "workers");
+	}
+
+	public void setFlushSize(int flushSize) {
+		this.flushSize = flushSize == -1 ? -1 : requiePositiveValue(flushSize, "flushSize");
+	}
+
+	public void setFlushBytes(long flushBytes) {
+		this.flushBytes = flushBytes == -1 ? -1 : requiePositiveValue(flushBytes, "flushBytes");
+	}
+
+	public void setMaxBatchBytes(long maxBatchBytes) {
+		this.maxBatchBytes = maxBatchBytes == -1 ? -1 : requiePositiveValue(maxBatchBytes, "maxBatchBytes");
+	}
+
+	public void setRetryMaxDelay(int retryMaxDelay) {
+		this.retryMaxDelay = requiePositiveValue(retryMaxDelay, "retryMaxDelay");
+	}
+
+	public void setBreakerThreshold(int breakerThreshold) {
+		this.breakerThreshold = requiePositiveValue(breakerThreshold, "breakerThreshold");
+	}
+
+	public void setProbeSize(int probeSize) {
+		this.probeSize = requiePositiveValue(probeSize, "probeSize");
+	}
+
+	public void setEvictionPolicy(String evictionPolicy) {
+		EvictionPolicy.evictionPolicy(evictionPolicy); //validate
+		this.evictionPolicy = evictionPolicy;
+	}
+
+	public void setLockTimeout(int lockTimeout) {
+		this.lockTimeout = lockTimeout == -1 ? -1 : requiePositiveValue(lockTimeout, "lockTimeout");
+	}
+
+	public void setPendingMaxSize(int pendingMaxSize) {
+		this.pendingMaxSize = pendingMaxSize == -1 ? -1 : requiePositiveValue(pendingMaxSize, "pendingMaxSize");
+	}
+
+	public void setSpillDirectory(String spillDirectory) {
+		this.spillDirectory = spillDirectory;
+	}
+
+	public void setSpillSegmentSize(int spillSegmentSize) {
+		this.spillSegmentSize = requiePositiveValue(spillSegmentSize, "spillSegmentSize");
+	}
+
+	public void setSpillMaxSize(long spillMaxSize) {
+		this.spillMaxSize = requiePositiveValue(spillMaxSize, "spillMaxSize");
 	}
 
 	private static int requiePositiveValue(int v, String name) {
@@ -39,4 +105,11 @@ public class SessionDispatcherProperties {
 		}
 		throw new IllegalArgumentException(name + "=" +  v + " <= 0");
 	}
+
+	private static long requiePositiveValue(long v, String name) {
+		if(v > 0) {
+			return v;
+		}
+		throw new IllegalArgumentException(name + "=" +  v + " <= 0");
+	}
 }
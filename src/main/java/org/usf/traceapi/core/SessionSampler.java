@@ -0,0 +1,24 @@
+package org.usf.traceapi.core;
+
+import java.util.function.Predicate;
+
+/**
+ * Sampling decision of a single handler : the session is shared by all handlers and must not be modified,
+ * the dispatcher applies the returned probability to its own copy, see {@link Samplers#withSampleRate(Session, double)}.
+ * 
+ * @author u$f
+ *
+ */
+@FunctionalInterface
+interface SessionSampler extends Predicate<Session> {
+	
+	/**
+	 * @return sampling probability of the kept session, 0 : dropped
+	 */
+	double sample(Session s);
+	
+	@Override
+	default boolean test(Session s) {
+		return sample(s) > 0;
+	}
+}
@@ -0,0 +1,300 @@
+package org.usf.traceapi.core;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.usf.traceapi.core.Helper.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped segment log used to spill serialized session batches to disk.
+ * <pre>
+ * segment : {id}.seg, fixed size, record* (zero length = end of segment)
+ * record  : length(int) crc32(int) payload
+ * offset  : segment(long) position(int) crc32(int), persisted on each commit
+ * </pre>
+ * Bounded by {@code maxSize} bytes : appends are rejected once the log is full.
+ * Corrupted records (crc mismatch) are skipped by their recorded length.
+ * Single consumer : peek/commit must not be interleaved by several readers.
+ *
+ * @author u$f
+ *
+ */
+final class SpillLog implements Closeable {
+
+	static final String SEGMENT_EXT = ".seg";
+	static final String OFFSET_FILE = "offset";
+	static final int HEADER = 8; //length + crc
+	private static final MethodHandle UNMAPPER = unmapper();
+
+	private final Path dir;
+	private final int segmentSize;
+	private final long maxSize;
+	private final Deque<Segment> segments = new ArrayDeque<>();
+	private final FileChannel offset;
+	private long baseId; //first segment id when empty
+	private int writePos;
+	private int readPos;
+	private int peeked = -1;
+	private boolean closed; //segments unmapped
+
+	SpillLog(Path dir, int segmentSize, long maxSize) throws IOException {
+		if(segmentSize <= HEADER || maxSize < segmentSize) {
+			throw new IllegalArgumentException("segmentSize=" + segmentSize + ", maxSize=" + maxSize);
+		}
+		this.dir = createDirectories(dir);
+		this.segmentSize = segmentSize;
+		this.maxSize = maxSize;
+		this.offset = FileChannel.open(dir.resolve(OFFSET_FILE), CREATE, READ, WRITE);
+		recover();
+	}
+
+	/**
+	 * @return false if the log is full or the record is larger than a segment
+	 */
+	synchronized boolean append(byte[] data) throws IOException {
+		ensureOpen();
+		var len = HEADER + data.length;
+		if(len > segmentSize) {
+			log.warn("cannot spill {} bytes, spillSegmentSize={}", data.length, segmentSize);
+			return false;
+		}
+		if(segments.isEmpty() || writePos + len > segmentSize) {
+			if((segments.size() + 1L) * segmentSize > maxSize) {
+				log.warn("spill log is full, spillMaxSize={}", maxSize);
+				return false;
+			}
+			segments.addLast(open(segments.isEmpty() ? baseId : segments.getLast().id + 1));
+			writePos = 0;
+		}
+		var buf = segments.getLast().buffer;
+		buf.putInt(writePos + 4, crc(data));
+		buf.put(writePos + HEADER, data);
+		buf.putInt(writePos, data.length); //commit record
+		buf.force(writePos, len);
+		writePos += len;
+		return true;
+	}
+
+	/**
+	 * @return next record or null if the log is empty, see {@link #commit()}
+	 */
+	synchronized byte[] peek() throws IOException {
+		ensureOpen();
+		while(!segments.isEmpty()) {
+			var seg = segments.getFirst();
+			var lost = 0;
+			for(int len; (len = length(seg.buffer, readPos)) > 0; readPos += HEADER + len) {
+				var data = read(seg.buffer, readPos, len);
+				if(nonNull(data)) {
+					skipped(seg, lost);
+					peeked = len;
+					return data;
+				}
+				lost++; //resync on the recorded length
+			}
+			skipped(seg, lost);
+			if(segments.size() == 1) { //write segment
+				return null;
+			}
+			segments.removeFirst();
+			readPos = 0;
+			saveOffset(); //move the cursor before deleting
+			unmap(seg.buffer);
+			try {
+				deleteIfExists(seg.path); //fully consumed
+			}
+			catch(IOException e) { //deleted on recover
+				log.warn("cannot delete spill segment {}", seg.path, e);
+			}
+		}
+		return null;
+	}
+
+	synchronized void commit() throws IOException {
+		ensureOpen();
+		if(peeked < 0) {
+			throw new IllegalStateException("nothing to commit");
+		}
+		readPos += HEADER + peeked;
+		peeked = -1;
+		saveOffset();
+	}
+
+	synchronized boolean isEmpty() throws IOException {
+		return isNull(peek());
+	}
+
+	synchronized long size() { //used disk space
+		return (long) segments.size() * segmentSize;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if(closed) {
+			return;
+		}
+		closed = true;
+		for(var s : segments) {
+			s.buffer.force();
+			unmap(s.buffer);
+		}
+		segments.clear();
+		offset.close();
+	}
+
+	private void ensureOpen() throws IOException {
+		if(closed) { //do not remap : written segments would be overwritten
+			throw new IOException("spill log is closed");
+		}
+	}
+
+	/**
+	 * @return record length or 0 at the end of segment
+	 */
+	private int length(MappedByteBuffer buf, int pos) {
+		if(pos + HEADER > segmentSize) {
+			return 0;
+		}
+		var len = buf.getInt(pos);
+		return len > 0 && pos + HEADER + len <= segmentSize ? len : 0;
+	}
+
+	/**
+	 * @return record payload or null if corrupted
+	 */
+	private static byte[] read(MappedByteBuffer buf, int pos, int len) {
+		var data = new byte[len];
+		buf.get(pos + HEADER, data);
+		return buf.getInt(pos + 4) == crc(data) ? data : null;
+	}
+
+	private void skipped(Segment seg, int lost) throws IOException {
+		if(lost > 0) {
+			log.warn("{} corrupted spill records skipped in {}", lost, seg.path);
+			saveOffset();
+		}
+	}
+
+	private void recover() throws IOException {
+		long[] ids;
+		try(var s = Files.list(dir)) {
+			ids = s.map(p-> p.getFileName().toString())
+					.filter(n-> n.endsWith(SEGMENT_EXT))
+					.mapToLong(n-> Long.parseLong(n.substring(0, n.length() - SEGMENT_EXT.length())))
+					.sorted().toArray();
+		}
+		var off = readOffset();
+		if(nonNull(off)) {
+			baseId = off[0];
+		}
+		for(var id : ids) {
+			if(nonNull(off) && id < off[0]) {
+				deleteIfExists(segmentPath(id)); //already consumed
+			}
+			else {
+				segments.addLast(open(id));
+			}
+		}
+		if(!segments.isEmpty()) {
+			readPos = nonNull(off) && segments.getFirst().id == off[0] ? (int) off[1] : 0;
+			var last = segments.getLast();
+			writePos = segments.size() == 1 ? readPos : 0;
+			for(int len; (len = length(last.buffer, writePos)) > 0;) {
+				writePos += HEADER + len; //corrupted records included
+			}
+			log.info("spill log recovered, {} segments, offset={}", segments.size(), readPos);
+		}
+	}
+
+	private long[] readOffset() throws IOException {
+		var buf = ByteBuffer.allocate(16);
+		if(offset.read(buf, 0) == 16) {
+			var crc = new CRC32();
+			crc.update(buf.array(), 0, 12);
+			if(buf.getInt(12) == (int) crc.getValue()) {
+				return new long[] {buf.getLong(0), buf.getInt(8)};
+			}
+			log.warn("corrupted spill offset, replaying from the first segment");
+		}
+		return null;
+	}
+
+	private void saveOffset() throws IOException {
+		var buf = ByteBuffer.allocate(16);
+		buf.putLong(0, segments.isEmpty() ? 0 : segments.getFirst().id);
+		buf.putInt(8, readPos);
+		var crc = new CRC32();
+		crc.update(buf.array(), 0, 12);
+		buf.putInt(12, (int) crc.getValue());
+		offset.write(buf, 0);
+		offset.force(false);
+	}
+
+	private Segment open(long id) throws IOException {
+		var path = segmentPath(id);
+		try(var fc = FileChannel.open(path, CREATE, READ, WRITE)) {
+			return new Segment(id, path, fc.map(READ_WRITE, 0, segmentSize)); //mapping remains valid
+		}
+	}
+
+	private Path segmentPath(long id) {
+		return dir.resolve(String.format("%020d", id) + SEGMENT_EXT);
+	}
+
+	private static int crc(byte[] data) {
+		var crc = new CRC32();
+		crc.update(data);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * releases the mapping eagerly : a mapped file cannot be deleted on Windows
+	 * and the buffer must not be accessed afterwards.
+	 */
+	private static void unmap(MappedByteBuffer buf) {
+		if(nonNull(UNMAPPER)) {
+			try {
+				UNMAPPER.invokeExact((ByteBuffer) buf);
+			}
+			catch(Throwable e) {
+				log.warn("cannot unmap spill segment", e);
+			}
+		}
+	}
+
+	private static MethodHandle unmapper() {
+		try {
+			var cls = Class.forName("sun.misc.Unsafe");
+			var fld = cls.getDeclaredField("theUnsafe");
+			fld.setAccessible(true);
+			return MethodHandles.lookup()
+					.findVirtual(cls, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+					.bindTo(fld.get(null));
+		}
+		catch(Exception e) {
+			log.warn("spill segments will be unmapped by the GC", e);
+			return null;
+		}
+	}
+
+	private record Segment(long id, Path path, MappedByteBuffer buffer) { }
+}
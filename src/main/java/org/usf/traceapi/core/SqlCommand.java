@@ -1,5 +1,8 @@
 package org.usf.traceapi.core;
 
+import static java.lang.Character.isLetterOrDigit;
+import static java.lang.Character.isWhitespace;
+import static java.util.Objects.nonNull;
 import static java.util.regex.Pattern.CASE_INSENSITIVE;
 import static java.util.regex.Pattern.DOTALL;
 import static java.util.regex.Pattern.MULTILINE;
@@ -7,6 +10,7 @@ import static java.util.regex.Pattern.compile;
 import static java.util.stream.Collectors.joining;
 import static org.usf.traceapi.core.Helper.log;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
@@ -18,69 +22,241 @@ import lombok.NonNull;
  *
  */
 public enum SqlCommand {
-	
+
 	CREATE, DROP, ALTER, TRUNCATE, //DDL
 	GRANT, REVOKE, //DCL
 	INSERT, UPDATE, DELETE, //DML
 	SELECT, //DQL
 	SQL; //multiple command
-	
+
+	private static final SqlCommand[] COMMANDS = Stream.of(values()).filter(c-> c != SQL).toArray(SqlCommand[]::new);
+
+	private static final int CACHE_SIZE = 1 << 10; //direct-mapped
+
+	private static final AtomicReferenceArray<Entry> cache = new AtomicReferenceArray<>(CACHE_SIZE);
+
+	@Deprecated(forRemoval = true, since = "21")
 	public static final Pattern PATTERN =
-			compile(Stream.of(values())
-			.filter(c-> c != SQL) // not a command
+			compile(Stream.of(COMMANDS)
 			.map(Object::toString)
 			.collect(joining("|", "^\s*(", ")\s*"))
 			, MULTILINE | CASE_INSENSITIVE);
 
+	@Deprecated(forRemoval = true, since = "21")
 	public static final Pattern WITH_PATTERN =
 			compile("^\s*WITH\s+\\w+\s+AS\s*", MULTILINE | CASE_INSENSITIVE);
-	
-	public static final Pattern SQL_PATTERN = 
+
+	@Deprecated(forRemoval = true, since = "21")
+	public static final Pattern SQL_PATTERN =
 			compile(".+;.*\\w+", DOTALL);
 
-	public static SqlCommand mainCommand(@NonNull String query){
-		if(SQL_PATTERN.matcher(query).find()) { //multiple 
-			return SQL;
+	public static SqlCommand mainCommand(@NonNull String query){ //cached by value : dynamic SQL, unknown command included
+		var h = query.hashCode(); //cached by String
+		var idx = (h ^ (h >>> 16)) & (CACHE_SIZE - 1);
+		var e = cache.get(idx);
+		if(nonNull(e) && e.query().equals(query)) {
+			return e.command();
 		}
-		var idx = skipWithClause(query);
-		var m = PATTERN.matcher(query).region(idx, query.length());
-		return m.find() ? valueOf(m.group(1).toUpperCase()) : null;
+		var cmd = parse(query);
+		cache.lazySet(idx, new Entry(query, cmd));
+		return cmd;
+	}
+
+	static SqlCommand parse(String query) {
+		var lx = new Lexer(query);
+		var cmd = lx.command();
+		return lx.hasNextStatement() ? SQL : cmd;
 	}
-	
-	private static int skipWithClause(String s) {
-		var idx = 0;
-		var m = WITH_PATTERN.matcher(s);
-		if(m.find()) {
-			var p = compile("^\s*,\s*\\w+\s+AS\s*", MULTILINE | CASE_INSENSITIVE); //multiple
+
+	private record Entry(String query, SqlCommand command) { }
+
+	/**
+	 * single pass : skips comments, quoted literals and (nested) parentheses
+	 */
+	private static final class Lexer {
+
+		private final String s;
+		private int i;
+
+		Lexer(String s) {
+			this.s = s;
+		}
+
+		SqlCommand command() {
+			blank();
+			while(at('(')) { //(SELECT ..) UNION ..
+				i++;
+				blank();
+			}
+			if(keyword("WITH")) {
+				return withClause();
+			}
+			var from = i;
+			word();
+			for(var c : COMMANDS) {
+				if(is(from, c.name())) {
+					return c;
+				}
+			}
+			return null;
+		}
+
+		private SqlCommand withClause() {
+			keyword("RECURSIVE");
 			do {
-				idx = jumpParentheses(s, m.end());
-				if(idx == m.end()) {
-					log.warn("'(' expected at {} after WITH clause : {}", idx, s);
-					break;
+				blank();
+				if(!identifier()) {
+					log.warn("CTE name expected at {} after WITH clause : {}", i, s);
+					return null;
+				}
+				blank();
+				if(at('(') && !parentheses()) { //column list
+					return null;
 				}
-				m = p.matcher(s).region(idx, s.length());
-			} while(m.find());
+				if(!keyword("AS")) {
+					log.warn("'AS' expected at {} after WITH clause : {}", i, s);
+					return null;
+				}
+				keyword("NOT");
+				keyword("MATERIALIZED");
+				blank();
+				if(!at('(')) {
+					log.warn("'(' expected at {} after WITH clause : {}", i, s);
+					return null;
+				}
+				if(!parentheses()) {
+					return null;
+				}
+				blank();
+			} while(at(',') && ++i > 0); //multiple
+			return command();
 		}
-		return idx;
-	}
-	
-	private static int jumpParentheses(CharSequence query, int from) {
-		var deep = 0;
-		for(var i=from; i<query.length(); i++) {
-			if(query.charAt(i) == '(') {
-				deep++;
+
+		boolean hasNextStatement() {
+			while(i < s.length()) {
+				var c = s.charAt(i);
+				if(c == ';') {
+					i++;
+					blank();
+					if(i < s.length() && s.charAt(i) != ';') {
+						return true;
+					}
+				}
+				else if(!skip(c)) {
+					i++;
+				}
 			}
-			else if(query.charAt(i) == ')') {
-				deep--;
-				if(deep == 0) {
-					return ++i;
+			return false;
+		}
+
+		private boolean parentheses() {
+			var from = i;
+			var deep = 0;
+			while(i < s.length()) {
+				var c = s.charAt(i);
+				if(skip(c)) {
+					continue;
+				}
+				i++;
+				if(c == '(') {
+					deep++;
 				}
-				else if(deep < 0) {
-					log.warn("unexpected character ')' at {} : {}", i, query);
-					break; //bad query
+				else if(c == ')' && --deep == 0) {
+					return true;
 				}
 			}
+			log.warn("unbalanced parentheses from {} : {}", from, s);
+			return false;
+		}
+
+		private boolean skip(char c) {
+			return literal(c) || comment(c);
+		}
+
+		private boolean literal(char c) {
+			if(c == '\'' || c == '"' || c == '`') {
+				var esc = c == '\'' && escapeString(); //standard SQL : backslash is not an escape
+				var j = i+1; //doubled quote : two literals
+				while(j < s.length() && s.charAt(j) != c) {
+					j += esc && s.charAt(j) == '\\' ? 2 : 1; //E'it\'s'
+				}
+				i = Math.min(j + 1, s.length());
+				return true;
+			}
+			return false;
+		}
+
+		private boolean escapeString() { //PostgreSQL escape string constant : E'..'
+			return i > 0 && (s.charAt(i-1) == 'E' || s.charAt(i-1) == 'e') 
+					&& (i == 1 || !isIdentifierPart(s.charAt(i-2)));
+		}
+
+		private boolean comment(char c) {
+			if(c == '-' && startsWith("--")) {
+				var end = s.indexOf('\n', i+2);
+				i = end < 0 ? s.length() : end + 1;
+				return true;
+			}
+			if(c == '/' && startsWith("/*")) {
+				var end = s.indexOf("*/", i+2);
+				i = end < 0 ? s.length() : end + 2;
+				return true;
+			}
+			return false;
+		}
+
+		private void blank() {
+			while(i < s.length()) {
+				var c = s.charAt(i);
+				if(isWhitespace(c)) {
+					i++;
+				}
+				else if(!comment(c)) {
+					return;
+				}
+			}
+		}
+
+		private boolean identifier() {
+			if(at('"') || at('`')) {
+				return literal(s.charAt(i));
+			}
+			var from = i;
+			word();
+			return i > from;
+		}
+
+		private boolean keyword(String kw) {
+			blank();
+			var from = i;
+			word();
+			if(is(from, kw)) {
+				return true;
+			}
+			i = from;
+			return false;
+		}
+
+		private void word() {
+			while(i < s.length() && isIdentifierPart(s.charAt(i))) {
+				i++;
+			}
+		}
+
+		private static boolean isIdentifierPart(char c) {
+			return isLetterOrDigit(c) || c == '_' || c == '$';
+		}
+
+		private boolean is(int from, String kw) {
+			return i - from == kw.length() && s.regionMatches(true, from, kw, 0, kw.length());
+		}
+
+		private boolean at(char c) {
+			return i < s.length() && s.charAt(i) == c;
+		}
+
+		private boolean startsWith(String token) {
+			return s.startsWith(token, i);
 		}
-		return from;
 	}
 }
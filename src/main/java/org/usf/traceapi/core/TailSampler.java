@@ -0,0 +1,124 @@
+package org.usf.traceapi.core;
+
+import static java.util.Objects.isNull;
+import static java.util.concurrent.ThreadLocalRandom.current;
+import static org.usf.traceapi.core.Samplers.hasException;
+import static org.usf.traceapi.core.Samplers.isServerError;
+import static org.usf.traceapi.core.Samplers.perEndpoint;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sampling decision taken on completed sessions, used as dispatcher admission filter.
+ * Always keeps failed (exception | status &gt;= 500) and slow sessions (duration above the endpoint percentile),
+ * samples {@code rate} of the rest (sampling probability) then applies the throughput budget (nullable) to them only :
+ * kept sessions are never dropped by the budget. Every session feeds the endpoint latency histogram.
+ *
+ * @author u$f
+ *
+ */
+final class TailSampler implements SessionSampler {
+
+	static final String DROPPED = "dropped";
+
+	private final double rate;
+	private final double percentile;
+	private final SessionSampler budget; //nullable
+	private final Map<String, Histogram> endpoints = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+	TailSampler(double rate, double percentile) {
+		this(rate, percentile, null);
+	}
+	
+	TailSampler(double rate, double percentile, SessionSampler budget) {
+		if(rate < 0 || rate > 1 || percentile <= 0 || percentile >= 1) {
+			throw new IllegalArgumentException("rate=" + rate + ", percentile=" + percentile);
+		}
+		this.rate = rate;
+		this.percentile = percentile;
+		this.budget = budget;
+	}
+
+	@Override
+	public double sample(Session s) {
+		var h = perEndpoint(endpoints, s, Histogram::new);
+		var d = s.duration();
+		var slow = d >= 0 && h.isAbove(d, percentile);
+		if(d >= 0) {
+			h.add(d);
+		}
+		String reason;
+		var p = 1.;
+		if(hasException(s)) {
+			reason = "kept.exception";
+		}
+		else if(isServerError(s)) {
+			reason = "kept.server-error";
+		}
+		else if(slow) {
+			reason = "kept.slow";
+		}
+		else if(rate > 0 && (rate >= 1 || current().nextDouble() < rate)) {
+			p = rate * (isNull(budget) ? 1 : budget.sample(s));
+			reason = p > 0 ? "kept.sampled" : DROPPED + ".budget";
+		}
+		else {
+			reason = DROPPED;
+		}
+		counters.computeIfAbsent(reason, k-> new LongAdder()).increment();
+		return reason.startsWith("kept") ? p : 0;
+	}
+
+	public Map<String, Long> getCounters() {
+		var map = new TreeMap<String, Long>();
+		counters.forEach((k, v)-> map.put(k, v.sum()));
+		return map;
+	}
+
+	/**
+	 * log-linear latency histogram (4 sub-buckets per power of 2, ~19% error), halved when full : recent values weigh more
+	 */
+	static final class Histogram {
+
+		static final int WARMUP = 100; //no percentile before
+		static final long MAX_COUNT = 1 << 16;
+
+		private final long[] buckets = new long[256];
+		private long count;
+
+		synchronized void add(long millis) {
+			buckets[index(millis)]++;
+			if(++count >= MAX_COUNT) { //decay
+				count = 0;
+				for(var i=0; i<buckets.length; i++) {
+					buckets[i] >>= 1;
+					count += buckets[i];
+				}
+			}
+		}
+
+		synchronized boolean isAbove(long millis, double percentile) {
+			if(count < WARMUP) {
+				return false;
+			}
+			var idx = index(millis);
+			var rank = 0L;
+			for(var i=0; i<idx; i++) {
+				rank += buckets[i];
+			}
+			return rank >= percentile * count; //strictly above the p-th bucket
+		}
+
+		static int index(long v) {
+			if(v < 4) {
+				return (int) Math.max(0, v);
+			}
+			var log = 63 - Long.numberOfLeadingZeros(v); // >= 2
+			return (log << 2) + (int) ((v >>> (log - 2)) & 3);
+		}
+	}
+}
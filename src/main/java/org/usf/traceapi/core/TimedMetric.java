@@ -0,0 +1,105 @@
+package org.usf.traceapi.core;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.time.Instant;
+
+/**
+ * Either set with {@link Instant}s (deserialization) or captured with {@link System#nanoTime()} against a {@link TraceClock}, 
+ * {@link Instant}s are materialized on first read (serialization).
+ * 
+ * @author u$f
+ *
+ */
+abstract class TimedMetric implements Metric {
+
+	private Instant start;
+	private Instant end;
+	private TraceClock clock; //nullable
+	private long startNanos;
+	private long elapsedNanos = -1; //not ended
+	
+	TimedMetric() { }
+
+	TimedMetric(Instant start, Instant end) {
+		this.start = start;
+		this.end = end;
+	}
+
+	TimedMetric(TraceClock clock, long start, long end) {
+		this.clock = clock;
+		this.startNanos = start;
+		this.elapsedNanos = end - start;
+	}
+	
+	void start(TraceClock clock, long nanos) {
+		this.clock = clock;
+		this.startNanos = nanos;
+		this.elapsedNanos = -1;
+		this.start = null;
+		this.end = null;
+	}
+	
+	void end(long nanos) {
+		if(isNull(clock)) {
+			throw new IllegalStateException("not started");
+		}
+		this.elapsedNanos = nanos - startNanos;
+		this.end = null;
+	}
+
+	TraceClock getClock() {
+		return clock;
+	}
+
+	long endNanos() { //-1 otherwise
+		return nonNull(clock) && elapsedNanos > -1 ? startNanos + elapsedNanos : -1;
+	}
+
+	@Override
+	public Instant getStart() {
+		if(isNull(start) && nonNull(clock)) {
+			start = clock.instant(startNanos);
+		}
+		return start;
+	}
+	
+	public void setStart(Instant start) {
+		detach();
+		this.start = start;
+	}
+
+	@Override
+	public Instant getEnd() {
+		if(isNull(end) && nonNull(clock) && elapsedNanos > -1) {
+			end = clock.instant(startNanos + elapsedNanos);
+		}
+		return end;
+	}
+	
+	public void setEnd(Instant end) {
+		detach();
+		this.end = end;
+	}
+	
+	@Override
+	public long duration() {
+		return nonNull(clock) 
+				? (elapsedNanos > -1 ? elapsedNanos / 1_000_000 : -1) 
+				: Metric.super.duration();
+	}
+	
+	@Override
+	public long durationNanos() {
+		return nonNull(clock) ? elapsedNanos : Metric.super.durationNanos();
+	}
+	
+	private void detach() { //materialize before overriding one bound
+		if(nonNull(clock)) {
+			getStart();
+			getEnd();
+			clock = null;
+		}
+	}
+}
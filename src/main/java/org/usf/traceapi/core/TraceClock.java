@@ -0,0 +1,36 @@
+package org.usf.traceapi.core;
+
+import static java.time.Instant.ofEpochSecond;
+import static java.util.Objects.nonNull;
+
+import java.time.Instant;
+
+/**
+ * Wall-clock anchor taken once per session : timestamps are captured with {@link System#nanoTime()} (monotonic, no allocation)
+ * and converted to {@link Instant} on read.
+ *
+ * @author u$f
+ *
+ */
+final class TraceClock {
+
+	private final long epochNanos; //wall-clock
+	private final long origin; //nanoTime
+
+	private TraceClock(Instant now, long origin) {
+		this.epochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+		this.origin = origin;
+	}
+
+	Instant instant(long nanos) {
+		return ofEpochSecond(0, epochNanos + (nanos - origin));
+	}
+
+	static TraceClock anchor() {
+		return new TraceClock(Instant.now(), System.nanoTime());
+	}
+
+	static TraceClock clock(Session session) { //share the session anchor
+		return session instanceof TimedMetric m && nonNull(m.getClock()) ? m.getClock() : anchor();
+	}
+}
@@ -8,14 +8,18 @@ import static org.springframework.core.Ordered.HIGHEST_PRECEDENCE;
 import static org.springframework.core.Ordered.LOWEST_PRECEDENCE;
 import static org.usf.traceapi.core.Helper.application;
 import static org.usf.traceapi.core.Helper.basePackage;
+import static org.usf.traceapi.core.Helper.locationRates;
 import static org.usf.traceapi.core.Helper.log;
 import static org.usf.traceapi.core.TraceMultiCaster.register;
+import static org.usf.traceapi.core.TraceMultiCaster.unregister;
 
 import java.net.UnknownHostException;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -37,27 +41,51 @@ import jakarta.servlet.Filter;
 @Configuration
 @EnableConfigurationProperties(TraceConfigurationProperties.class)
 @ConditionalOnProperty(prefix = "api.tracing", name = "enabled", havingValue = "true")
-public class TraceConfiguration implements WebMvcConfigurer {
+public class TraceConfiguration implements WebMvcConfigurer, DisposableBean {
 	
 	@Value("${api.tracing.exclude:}")
 	private String[] excludes;
 	
+	private final HeadSampler sampler;
+	
+	private final TraceHandler handler;
+	
 	private ApiSessionFilter sessionFilter;
 	
 	public TraceConfiguration(Environment env, TraceConfigurationProperties config, @Value("${api.tracing.base-package:}") String pkg) {
 		application = applicationInfo(env);
-		basePackage = pkg;
-		register(config.getUrl().isBlank() 
-        		? res-> {} // cache traces !?
-        		: new RemoteTraceSender(config));
+		basePackage(pkg);
+		locationRates = Map.copyOf(config.getLocationRates());
+		sampler = new HeadSampler(config.getSampleRate(), config.getSampleRates());
+		handler = config.getUrl().isBlank() 
+        		? localSender(config)
+        		: remoteSender(config);
+		register(handler);
 		log.info("app.env : {}", application);
 	}
 
+	@Override
+	public void destroy() throws InterruptedException {
+		unregister(handler); //context refresh : stop the handler worker once drained
+		handler.shutdown(); //buffered, pending & in-flight sessions
+	}
+
+	private static TraceHandler localSender(TraceConfigurationProperties config) {
+		return config.getFileDirectory().isBlank() 
+				? res-> {} // cache traces !?
+				: new FileTraceHandler(config);
+	}
+
+	private static TraceHandler remoteSender(TraceConfigurationProperties config) {
+		return config.isAsync() 
+				? new AsyncTraceSender(config) 
+				: new RemoteTraceSender(config);
+	}
+
 	@Override
     public void addInterceptors(InterceptorRegistry registry) {
     	registry.addInterceptor(sessionFilter())
-    	.order(LOWEST_PRECEDENCE)
-    	.excludePathPatterns(excludes);
+    	.order(LOWEST_PRECEDENCE); //exclusions : decision shared by the filter
     }
 	
     @Bean
@@ -70,7 +98,7 @@ public class TraceConfiguration implements WebMvcConfigurer {
     
     private ApiSessionFilter sessionFilter() {
     	if(isNull(sessionFilter)) {
-    		sessionFilter = new ApiSessionFilter(excludes);
+    		sessionFilter = new ApiSessionFilter(excludes, sampler);
     	}
     	return sessionFilter;
     }
@@ -82,7 +110,7 @@ public class TraceConfiguration implements WebMvcConfigurer {
     
     @Bean
     public TraceableAspect traceableAspect() {
-    	return new TraceableAspect();
+    	return new TraceableAspect(sampler);
     }
 
     @Bean
@@ -1,5 +1,8 @@
 package org.usf.traceapi.core;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import lombok.Getter;
@@ -16,5 +19,18 @@ import lombok.Setter;
 public final class TraceConfigurationProperties extends SessionDispatcherProperties {
 	
 	private String url = "";
+	private boolean compress = false; //gzip request body | closed trace files
+	private String format = "json"; //json, binary
+	private boolean async = false; //JDK HttpClient sender, see AsyncTraceSender
+	private String fileDirectory = ""; //NDJSON traces when url is blank, see FileTraceHandler
+	private long fileMaxSize = 64L << 20; //bytes
+	private int fileMaxAge = 60; //minutes
+	private double sampleRate = 1; //head sampling [0..1]
+	private Map<String, Double> sampleRates = new LinkedHashMap<>(); //path | batch pattern => rate, first match
+	private boolean tailSampling = false; //keep failed & slow sessions, see TailSampler
+	private double tailRate = .1; //kept ratio of the rest
+	private double tailPercentile = .99; //slow : duration above the endpoint percentile
+	private double budget = -1; //sessions per second per endpoint, see BudgetSampler, -1 : unlimited
+	private Map<String, Double> locationRates = new LinkedHashMap<>(); //jdbc, executor => call-site capture rate [0..1], 0 : off
 
 }
@@ -9,5 +9,9 @@ package org.usf.traceapi.core;
 public interface TraceHandler {
 	
 	void handle(Session session);
+	
+	default void complete(Session session) { } //emitted session was unlocked, called on the unlocking thread : must not block, see Session::unlock
+	
+	default void shutdown() throws InterruptedException { } //flush buffered sessions, see TraceConfiguration::destroy
 
 }
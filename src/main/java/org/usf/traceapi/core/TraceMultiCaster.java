@@ -1,30 +1,178 @@
 package org.usf.traceapi.core;
 
-import static java.util.Collections.synchronizedList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static java.util.concurrent.locks.LockSupport.unpark;
+import static org.usf.traceapi.core.Helper.log;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
 /**
- * 
+ *
  * Simple trace MultiCaster impl. reduce bean dependencies
- * 
+ * <p>
+ * Each handler is isolated behind its own bounded queue and worker thread :
+ * {@link #emit(Session)} never runs handler code on the traced thread (except {@link OverflowPolicy#CALLER_RUNS}).
+ *
  * @author u$f
  *
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class TraceMultiCaster {
-	
-    static final List<TraceHandler> handlers = synchronizedList(new ArrayList<>());
-    
+
+	static final int QUEUE_SIZE = 10_000;
+
+    static final List<HandlerWorker> handlers = new CopyOnWriteArrayList<>(); //read mostly
+
 	public static void register(TraceHandler sender) {
-		handlers.add(sender);
+		register(sender, QUEUE_SIZE, OverflowPolicy.DROP);
+	}
+
+	public static void register(TraceHandler sender, int queueSize, OverflowPolicy policy) {
+		handlers.add(new HandlerWorker(sender, queueSize, policy));
 	}
-	
+
+	/**
+	 * stops the handler worker once its queue is drained
+	 */
+	public static boolean unregister(TraceHandler sender) {
+		var found = false;
+		for(var h : handlers) {
+			if(h.handler == sender && handlers.remove(h)) {
+				h.close();
+				found = true;
+			}
+		}
+		return found;
+	}
+
 	static void emit(Session session) {
-		handlers.forEach(h-> h.handle(session)); //non blocking..
+		session.setEmitted(true); //before submit, see Session::unlock
+		for(var h : handlers) { //snapshot, no lock
+			h.submit(session);
+		}
+	}
+
+	/**
+	 * not queued : cannot be dropped, {@link TraceHandler#complete(Session)} must not block
+	 */
+	static void complete(Session session) {
+		for(var h : handlers) {
+			h.complete(session);
+		}
+	}
+
+	public enum OverflowPolicy {
+
+		DROP, // newest event is dropped (counted)
+		CALLER_RUNS; // handled on the traced thread
+	}
+
+	static final class HandlerWorker implements Runnable {
+
+		private static final long PARK_NANOS = MILLISECONDS.toNanos(100);
+		private static final long CLOSE_MILLIS = 5_000;
+
+		private final TraceHandler handler;
+		private final RingBuffer<Session> queue;
+		private final OverflowPolicy policy;
+		private final AtomicLong dropped = new AtomicLong();
+		private final Thread worker;
+		private volatile boolean idle;
+		private volatile boolean closed;
+
+		HandlerWorker(TraceHandler handler, int queueSize, OverflowPolicy policy) {
+			this.handler = handler;
+			this.queue = new RingBuffer<>(queueSize);
+			this.policy = policy;
+			this.worker = new Thread(this, "trace-handler-" + handlers.size());
+			this.worker.setDaemon(true);
+			this.worker.start();
+		}
+
+		void submit(Session event) {
+			if(closed) { //unregistered
+				dropped.incrementAndGet();
+			}
+			else if(queue.offer(event)) {
+				if(idle) {
+					unpark(worker);
+				}
+			}
+			else if(policy == OverflowPolicy.CALLER_RUNS) {
+				accept(event);
+			}
+			else if((dropped.incrementAndGet() - 1) % queue.capacity() == 0) { //do not flood logs : once per queue capacity
+				log.warn("{} trace events dropped, handler queue is full : {}", dropped.get(), handler);
+			}
+		}
+
+		@Override
+		public void run() {
+			for(;;) {
+				var event = queue.poll();
+				if(event == null) {
+					if(closed) { //drained
+						return;
+					}
+					idle = true;
+					if(queue.isEmpty()) { //recheck after publishing idle
+						parkNanos(this, PARK_NANOS);
+					}
+					idle = false;
+				}
+				else {
+					accept(event);
+				}
+			}
+		}
+
+		private void accept(Session event) {
+			try {
+				handler.handle(event);
+			}
+			catch (Exception e) { //isolated : do not kill the worker
+				log.warn("error while handling trace : {}", e.getMessage());
+			}
+		}
+
+		void complete(Session session) {
+			try {
+				handler.complete(session);
+			}
+			catch (Exception e) { //isolated : do not fail the traced thread
+				log.warn("error while completing trace : {}", e.getMessage());
+			}
+		}
+
+		void close() {
+			closed = true;
+			unpark(worker);
+			try {
+				worker.join(CLOSE_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if(worker.isAlive()) {
+				log.warn("handler worker still running after {}ms : {}", CLOSE_MILLIS, handler);
+			}
+		}
+
+		boolean isAlive() {
+			return worker.isAlive();
+		}
+
+		boolean isIdle() {
+			return idle && queue.isEmpty();
+		}
+
+		long getDropped() {
+			return dropped.get();
+		}
 	}
 }
@@ -1,19 +1,23 @@
 package org.usf.traceapi.core;
 
-import static java.time.Instant.now;
+import static java.lang.Boolean.TRUE;
+import static java.lang.System.nanoTime;
 import static java.util.Objects.nonNull;
 import static org.usf.traceapi.core.ExceptionInfo.mainCauseException;
+import static org.usf.traceapi.core.HeadSampler.sample;
 import static org.usf.traceapi.core.Helper.applicationInfo;
 import static org.usf.traceapi.core.Helper.localTrace;
 import static org.usf.traceapi.core.Helper.log;
 import static org.usf.traceapi.core.Helper.newInstance;
 import static org.usf.traceapi.core.Helper.threadName;
+import static org.usf.traceapi.core.Helper.unsampled;
 import static org.usf.traceapi.core.LaunchMode.BATCH;
-import static org.usf.traceapi.core.MainSession.synchronizedMainSession;
+import static org.usf.traceapi.core.MainSession.concurrentMainSession;
 import static org.usf.traceapi.core.Session.nextId;
+import static org.usf.traceapi.core.TraceClock.anchor;
+import static org.usf.traceapi.core.TraceClock.clock;
 import static org.usf.traceapi.core.TraceMultiCaster.emit;
 
-import java.time.Instant;
 import java.util.stream.Stream;
 
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -34,6 +38,8 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class TraceableAspect {
 	
+	private final HeadSampler sampler;
+	
     @ConditionalOnBean(ControllerAdvice.class)
     @Around("within(@org.springframework.web.bind.annotation.ControllerAdvice *)")
     Object aroundAdvice(ProceedingJoinPoint joinPoint) throws Throwable {
@@ -55,11 +61,27 @@ public class TraceableAspect {
     	if(nonNull(localTrace.get())) { //sub trace
     		return aroundStage(joinPoint, session);
     	}
-    	var ms = synchronizedMainSession(nextId());
+    	if(nonNull(unsampled.get())) { //unsampled parent
+    		return joinPoint.proceed();
+    	}
+    	var rate = sampler.rate(joinPoint.getSignature().getName());
+    	if(!sample(rate)) {
+    		unsampled.set(TRUE);
+    		try {
+    			return joinPoint.proceed(); //no session
+    		}
+    		finally {
+    			unsampled.remove();
+    		}
+    	}
+    	var ms = concurrentMainSession(nextId());
+    	ms.setSampleRate(rate);
     	localTrace.set(ms);
     	log.trace("session : {} <= {}", ms.getId(), joinPoint.getSignature());
     	Throwable ex = null;
-    	var beg = now();
+    	var clock = anchor();
+    	var beg = nanoTime();
+    	ms.start(clock, beg); //shared anchor
     	try {
     		return joinPoint.proceed();
     	}
@@ -68,11 +90,11 @@ public class TraceableAspect {
     		throw e;
     	}
     	finally {
-    		var fin = now();
+    		var fin = nanoTime();
     		try {
     			ms.setLaunchMode(BATCH);
     			ms.setApplication(applicationInfo());
-    			fill(ms, beg, fin, joinPoint, ex);
+    			fill(ms, clock, beg, fin, joinPoint, ex);
     			emit(ms);
     		}
     		catch(Exception e) {
@@ -86,7 +108,7 @@ public class TraceableAspect {
     static Object aroundStage(ProceedingJoinPoint joinPoint, Session session) throws Throwable {
 		log.trace("stage : {} <= {}", session.getId(), joinPoint.getSignature());
 		Exception ex = null;
-    	var beg = now();
+    	var beg = nanoTime();
     	try {
     		return joinPoint.proceed();
     	}
@@ -95,10 +117,10 @@ public class TraceableAspect {
     		throw e;
     	}
     	finally {
-    		var fin = now();
+    		var fin = nanoTime();
     		try {
     	    	var rs = new RunnableStage();
-    			fill(rs, beg, fin, joinPoint, ex);
+    			fill(rs, clock(session), beg, fin, joinPoint, ex);
 				session.append(rs);
     		}
     		catch(Exception e) {
@@ -108,11 +130,11 @@ public class TraceableAspect {
     	}
     }
     
-    static void fill(RunnableStage sg, Instant beg, Instant fin, ProceedingJoinPoint joinPoint, Throwable e) {
+    static void fill(RunnableStage sg, TraceClock clock, long beg, long fin, ProceedingJoinPoint joinPoint, Throwable e) {
     	MethodSignature signature = (MethodSignature) joinPoint.getSignature();
     	var ant = signature.getMethod().getAnnotation(TraceableStage.class);
-		sg.setStart(beg);
-		sg.setEnd(fin);
+		sg.start(clock, beg);
+		sg.end(fin);
 		sg.setName(ant.value().isBlank() ? joinPoint.getSignature().getName() : ant.value());
 		sg.setLocation(joinPoint.getSignature().getDeclaringTypeName());
 		sg.setThreadName(threadName());
@@ -1,13 +1,18 @@
 package org.usf.traceapi.core;
 
-import static java.time.Instant.now;
+import static java.lang.Boolean.TRUE;
+import static java.lang.System.nanoTime;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static org.usf.traceapi.core.ExceptionInfo.mainCauseException;
+import static org.usf.traceapi.core.Helper.EXECUTOR;
 import static org.usf.traceapi.core.Helper.localTrace;
 import static org.usf.traceapi.core.Helper.log;
 import static org.usf.traceapi.core.Helper.warnNoSession;
 import static org.usf.traceapi.core.Helper.stackTraceElement;
 import static org.usf.traceapi.core.Helper.threadName;
+import static org.usf.traceapi.core.Helper.unsampled;
+import static org.usf.traceapi.core.TraceClock.clock;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
@@ -49,18 +54,18 @@ public final class TraceableExecutorService implements ExecutorService {
     	var session = localTrace.get();
 		if(isNull(session)) {
 			warnNoSession();
-			return fn.apply(command);
+			return fn.apply(nonNull(unsampled.get()) ? unsampledRunnable(command) : command);
 		}
 		session.lock(); //important! sync lock
 		try {
-			var ost = stackTraceElement(); //important! on parent thread
+			var ost = stackTraceElement(EXECUTOR); //important! on parent thread
 			return fn.apply(()->{
 				log.trace("stage : {} <= {}", session.getId(), command);
 		    	if(localTrace.get() != session) {
 		    		localTrace.set(session); //thread already exists
 		    	}
 				Throwable ex = null;
-		    	var beg = now();
+		    	var beg = nanoTime();
 		    	try {
 		    		command.run();
 		    	}
@@ -69,11 +74,11 @@ public final class TraceableExecutorService implements ExecutorService {
 		    		throw e;
 		    	}
 		    	finally {
-		    		var fin = now();
+		    		var fin = nanoTime();
 		    		try {
 		    	    	var rs = new RunnableStage();
-			    		rs.setStart(beg);
-			    		rs.setEnd(fin);
+			    		rs.start(clock(session), beg);
+			    		rs.end(fin);
 		    			rs.setThreadName(threadName());
 		    			rs.setException(mainCauseException(ex));
 			    		ost.ifPresent(st->{
@@ -101,18 +106,18 @@ public final class TraceableExecutorService implements ExecutorService {
     	var session = localTrace.get();
 		if(isNull(session)) {
 			warnNoSession();
-			return fn.apply(command);
+			return fn.apply(nonNull(unsampled.get()) ? unsampledCallable(command) : command);
 		}
 		session.lock(); //important! sync lock
 		try {
-			var ost = stackTraceElement(); //important! on parent thread
+			var ost = stackTraceElement(EXECUTOR); //important! on parent thread
 			return fn.apply(()->{
 				log.trace("stage : {} <= {}", session.getId(), command);
 		    	if(localTrace.get() != session) {
 		    		localTrace.set(session); //thread already exists
 		    	}
 				Throwable ex = null;
-		    	var beg = now();
+		    	var beg = nanoTime();
 		    	try {
 		    		return command.call();
 		    	}
@@ -121,11 +126,11 @@ public final class TraceableExecutorService implements ExecutorService {
 		    		throw e;
 		    	}
 		    	finally {
-		    		var fin = now();
+		    		var fin = nanoTime();
 		    		try {
 		    	    	var rs = new RunnableStage();
-			    		rs.setStart(beg);
-			    		rs.setEnd(fin);
+			    		rs.start(clock(session), beg);
+			    		rs.end(fin);
 		    			rs.setThreadName(threadName());
 		    			rs.setException(mainCauseException(ex));
 			    		ost.ifPresent(st->{
@@ -149,6 +154,30 @@ public final class TraceableExecutorService implements ExecutorService {
 		}
     }
         
+    private static Runnable unsampledRunnable(Runnable command) { //propagate head sampling decision
+    	return ()-> {
+    		unsampled.set(TRUE);
+    		try {
+    			command.run();
+    		}
+    		finally {
+    			unsampled.remove();
+    		}
+    	};
+    }
+
+    private static <T> Callable<T> unsampledCallable(Callable<T> command) { //propagate head sampling decision
+    	return ()-> {
+    		unsampled.set(TRUE);
+    		try {
+    			return command.call();
+    		}
+    		finally {
+    			unsampled.remove();
+    		}
+    	};
+    }
+        
 	public static TraceableExecutorService wrap(@NonNull ExecutorService es) {
 		return new TraceableExecutorService(es);
 	}
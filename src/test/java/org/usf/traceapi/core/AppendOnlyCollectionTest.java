@@ -0,0 +1,66 @@
+package org.usf.traceapi.core;
+
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.IntStream.range;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.traceapi.core.AppendOnlyCollection.index;
+import static org.usf.traceapi.core.AppendOnlyCollection.offset;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class AppendOnlyCollectionTest {
+
+	@ParameterizedTest
+	@CsvSource({"0,0,0", "15,0,15", "16,1,0", "47,1,31", "48,2,0", "111,2,63", "112,3,0"})
+	void testSegment(int idx, int segment, int offset) {
+		assertEquals(segment, index(idx));
+		assertEquals(offset, offset(idx));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {0, 1, 16, 17, 100, 1000})
+	void testAdd(int n) {
+		var c = new AppendOnlyCollection<Integer>();
+		range(0, n).forEach(c::add);
+		assertEquals(n, c.size());
+		assertEquals(range(0, n).boxed().toList(), new ArrayList<>(c)); //insertion order
+		var it = c.iterator();
+		range(0, n).forEach(i-> it.next());
+		assertFalse(it.hasNext());
+		assertThrows(NoSuchElementException.class, it::next);
+		assertThrows(NullPointerException.class, ()-> c.add(null));
+	}
+
+	@Test
+	void testAdd_concurrent() {
+		var c = new AppendOnlyCollection<Integer>();
+		var service = newFixedThreadPool(8);
+		var futures = range(0, 8)
+				.mapToObj(i-> runAsync(()-> range(0, 1000).forEach(j-> c.add(i*1000+j)), service))
+				.toArray(CompletableFuture[]::new);
+		allOf(futures).join();
+		service.shutdown();
+		assertEquals(8000, c.size());
+		var set = new HashSet<Integer>();
+		c.forEach(v-> assertTrue(set.add(v)));
+		assertEquals(8000, set.size());
+	}
+}
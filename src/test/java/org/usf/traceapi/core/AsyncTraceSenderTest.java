@@ -0,0 +1,60 @@
+package org.usf.traceapi.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.usf.traceapi.core.SessionCodec.codec;
+import static org.usf.traceapi.core.SessionCodecTest.apiSession;
+import static org.usf.traceapi.core.SessionCodecTest.mainSession;
+import static org.usf.traceapi.core.SessionCodecTest.toJson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.usf.traceapi.core.AsyncTraceSender.SessionInputStream;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class AsyncTraceSenderTest {
+
+	@ParameterizedTest
+	@ValueSource(strings = {"json", "binary"})
+	void testSessionInputStream(String format) throws IOException {
+		var codec = codec(format);
+		var sessions = sessions(200);
+		var exp = new ByteArrayOutputStream();
+		codec.write(exp, sessions);
+		try(var in = new SessionInputStream(codec, sessions, false)) {
+			assertArrayEquals(exp.toByteArray(), in.readAllBytes());
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"json", "binary"})
+	void testSessionInputStream_gzip(String format) throws IOException {
+		var codec = codec(format);
+		var sessions = sessions(200);
+		try(var in = new GZIPInputStream(new SessionInputStream(codec, sessions, true))) {
+			var res = codec.read(in);
+			assertEquals(sessions.size(), res.size());
+			for(var i=0; i<res.size(); i++) {
+				assertEquals(toJson(sessions.get(i)), toJson(res.get(i)));
+			}
+		}
+	}
+
+	static List<Session> sessions(int n) {
+		var sessions = new ArrayList<Session>(n);
+		for(var i=0; i<n; i++) {
+			sessions.add(i % 2 == 0 ? apiSession() : mainSession());
+		}
+		return sessions;
+	}
+}
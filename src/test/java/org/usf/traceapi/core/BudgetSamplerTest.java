@@ -0,0 +1,65 @@
+package org.usf.traceapi.core;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class BudgetSamplerTest {
+	
+	@ParameterizedTest
+	@CsvSource({"50, 1", "100, 1", "1000, .1", "10000, .01"})
+	void testProbability(int perSecond, double expected) {
+		var budget = new BudgetSampler(100).new Budget();
+		var step = MILLISECONDS.toNanos(1000) / perSecond;
+		var now = System.nanoTime();
+		var p = 0.;
+		for(var i=0; i<perSecond*5; i++) { //5 seconds
+			p = budget.probability(now += step);
+		}
+		assertEquals(expected, p, expected / 10);
+	}
+
+	@Test
+	void testTest() {
+		var sampler = new BudgetSampler(10);
+		var sessions = IntStream.range(0, 10_000).mapToObj(i-> {
+			var s = new ApiSession();
+			s.setName("endpoint");
+			s.setStatus(i % 100 == 0 ? 500 : 200);
+			return s;
+		}).toList();
+		var probabilities = sessions.stream().mapToDouble(sampler::sample).toArray();
+		assertTrue(DoubleStream.of(probabilities).filter(p-> p > 0).count() <= 10 + 100); //first window : budget + failed
+		for(var i=0; i<sessions.size(); i++) {
+			if(sessions.get(i).getStatus() == 500) {
+				assertEquals(1, probabilities[i]); //always kept
+			}
+			assertEquals(1, sessions.get(i).getSampleRate()); //shared session unchanged
+		}
+	}
+
+	@Test
+	void testProbability_firstWindow() {
+		var budget = new BudgetSampler(100).new Budget();
+		var now = System.nanoTime();
+		var kept = 0;
+		for(var i=0; i<10_000; i++) { //burst
+			kept += budget.probability(now) > 0 ? 1 : 0;
+		}
+		assertEquals(100, kept); //token bucket
+		var p = budget.probability(now + BudgetSampler.WINDOW); //window closed : estimate
+		assertEquals(.01, p, .001);
+	}
+}
@@ -0,0 +1,52 @@
+package org.usf.traceapi.core;
+
+import static java.lang.reflect.Proxy.newProxyInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class CountingClientHttpResponseTest {
+
+	@Test
+	void testRead() throws IOException {
+		var ends = new ArrayList<Long>();
+		var res = new CountingClientHttpResponse(response(new byte[100]), ends::add);
+		var in = res.getBody();
+		in.read();
+		in.read(new byte[10]);
+		in.skip(9);
+		assertEquals(0, ends.size()); //still reading
+		in.readAllBytes();
+		assertEquals(1, ends.size()); //last byte
+		in.close();
+		res.close();
+		assertEquals(1, ends.size()); //once
+		assertEquals(100, ends.get(0));
+	}
+
+	@Test
+	void testClose() throws IOException {
+		var ends = new ArrayList<Long>();
+		var res = new CountingClientHttpResponse(response(new byte[100]), ends::add);
+		res.getBody().read(new byte[30]);
+		res.close(); //partially read
+		assertEquals(1, ends.size());
+		assertEquals(30, ends.get(0));
+	}
+
+	static ClientHttpResponse response(byte[] body) {
+		var in = new ByteArrayInputStream(body);
+		return (ClientHttpResponse) newProxyInstance(ClientHttpResponse.class.getClassLoader(), new Class<?>[] {ClientHttpResponse.class}, 
+				(p, m, a)-> "getBody".equals(m.getName()) ? in : null);
+	}
+}
@@ -0,0 +1,111 @@
+package org.usf.traceapi.core;
+
+import static java.lang.reflect.Proxy.newProxyInstance;
+import static java.nio.charset.Charset.forName;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class CountingResponseWrapperTest {
+	
+	private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+	@Test
+	void testOutputStream() throws IOException {
+		var res = new CountingResponseWrapper(response("UTF-8"));
+		var out = res.getOutputStream();
+		out.write(1);
+		out.write(new byte[] {2, 3, 4, 5}, 1, 3);
+		assertEquals(4, res.getContentSize());
+		assertArrayEquals(new byte[] {1, 3, 4, 5}, body.toByteArray()); //pass-through
+	}
+	
+	@ParameterizedTest
+	@CsvSource({
+		"UTF-8,hello",
+		"UTF-8,héllo wörld",
+		"UTF-8,€ 😀",
+		"ISO-8859-1,héllo",
+		"UTF-16,hello",
+	})
+	void testWriter(String charset, String text) throws IOException {
+		var res = new CountingResponseWrapper(response(charset));
+		var w = res.getWriter();
+		w.print(text);
+		w.write('!');
+		w.write(text.toCharArray(), 1, text.length()-1);
+		w.flush();
+		assertEquals(body.size(), res.getContentSize());
+	}
+	
+	@ParameterizedTest
+	@CsvSource({"UTF-8", "ISO-8859-1", "UTF-16"})
+	void testWriter_println(String charset) throws IOException {
+		var res = new CountingResponseWrapper(response(charset));
+		var w = res.getWriter();
+		w.println("line");
+		w.println();
+		w.printf("%d%n", 42);
+		w.flush();
+		assertEquals(body.size(), res.getContentSize()); //line separators
+	}
+	
+	@Test
+	void testReset() throws IOException {
+		var res = new CountingResponseWrapper(response("UTF-8"));
+		res.getOutputStream().write(new byte[10]);
+		res.resetBuffer();
+		assertEquals(0, res.getContentSize());
+		res.getOutputStream().write(new byte[3]);
+		assertEquals(3, res.getContentSize());
+		res.reset();
+		assertEquals(0, res.getContentSize());
+		var w = res.getWriter();
+		w.print("héllo");
+		w.flush();
+		assertEquals(6, res.getContentSize());
+		res.resetBuffer();
+		assertEquals(0, res.getContentSize());
+	}
+	
+	private HttpServletResponse response(String charset) {
+		var out = new ServletOutputStream() {
+			@Override
+			public void write(int b) {
+				body.write(b);
+			}
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+			@Override
+			public void setWriteListener(WriteListener listener) {
+				//not async
+			}
+		};
+		var writer = new PrintWriter(new OutputStreamWriter(body, forName(charset)));
+		return (HttpServletResponse) newProxyInstance(getClass().getClassLoader(), new Class<?>[] {HttpServletResponse.class}, (p, m, a)-> switch(m.getName()) {
+			case "getOutputStream" -> out;
+			case "getWriter" -> writer;
+			case "getCharacterEncoding" -> charset;
+			default -> null;
+		});
+	}
+}
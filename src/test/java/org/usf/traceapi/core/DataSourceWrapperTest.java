@@ -1,8 +1,21 @@
 package org.usf.traceapi.core;
 
+import static java.lang.reflect.Proxy.newProxyInstance;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.usf.traceapi.core.DataSourceWrapper.decodeURL;
+import static org.usf.traceapi.core.Helper.localTrace;
+import static org.usf.traceapi.core.JDBCAction.CONNECTION;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
@@ -22,5 +35,46 @@ class DataSourceWrapperTest {
 		assertEquals(port, arr[1]);
 		assertEquals(schema, arr[2]);
 	}
-
+	
+	@Test
+	void testDescriptor() throws SQLException {
+		var calls = new AtomicInteger();
+		var url = new String[] {"jdbc:postgresql://pg.host:5432/db"};
+		var meta = proxy(DatabaseMetaData.class, m-> switch(m) {
+			case "getURL" -> url[0];
+			case "getUserName" -> "usr";
+			case "getDatabaseProductName" -> calls.incrementAndGet() > 0 ? m : null;
+			default -> m;
+		});
+		var cn = proxy(Connection.class, m-> m.equals("getMetaData") ? meta : null);
+		var ds = new DataSourceWrapper(proxy(DataSource.class, m-> cn));
+		var session = new MainSession();
+		localTrace.set(session);
+		try {
+			ds.getConnection().close();
+			ds.getConnection().close();
+			url[0] = "jdbc:postgresql://pg.replica:5432/db"; //failover
+			ds.getConnection().close();
+		}
+		finally {
+			localTrace.remove();
+		}
+		var arr = session.getQueries().toArray(DatabaseRequest[]::new);
+		assertEquals(3, arr.length);
+		assertSame(arr[0].getDescriptor(), arr[1].getDescriptor()); //resolved once
+		assertEquals("pg.host", arr[1].getHost());
+		assertEquals(5432, arr[1].getPort());
+		assertEquals("db", arr[1].getDatabase());
+		assertEquals("usr", arr[1].getUser());
+		assertEquals("getDatabaseProductName", arr[1].getDatabaseName());
+		assertEquals(1, arr[1].getActions().size()); //no METADATA action
+		assertEquals(CONNECTION, arr[1].getActions().get(0).getType());
+		assertEquals(2, calls.get()); //refreshed on URL change
+		assertEquals("pg.replica", arr[2].getHost());
+	}
+	
+	@SuppressWarnings("unchecked")
+	static <T> T proxy(Class<T> type, Function<String, Object> fn) {
+		return (T) newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (p, m, a)-> fn.apply(m.getName()));
+	}
 }
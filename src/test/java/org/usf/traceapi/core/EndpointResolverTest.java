@@ -0,0 +1,107 @@
+package org.usf.traceapi.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.springframework.web.servlet.HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE;
+import static org.springframework.web.servlet.HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE;
+import static org.usf.traceapi.core.EndpointResolver.NO_STAGE;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.web.method.HandlerMethod;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class EndpointResolverTest {
+
+	@ParameterizedTest
+	@CsvSource(delimiter = '|', value = {
+		"''|/|''",
+		"''|/api/users|api_users",
+		"''|/api/users/{id}|api_users",
+		"''|/api/users/{id:\\d+}/orders|api_users_orders",
+		"''|/files/{*path}|files",
+		"''|/static/**|static",
+		"''|/**|''",
+		"''|/{id}|''",
+		"''|/*|''",
+		"/app|/api/users/{id}|app_api_users",
+	})
+	void testPatternName(String contextPath, String pattern, String name) {
+		assertEquals(name, EndpointResolver.patternName(contextPath, pattern));
+	}
+	
+	@Test
+	void testName() {
+		var r = new EndpointResolver();
+		var n1 = r.name(request("/api/users/12", Map.of(BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/users/{id}")));
+		var n2 = r.name(request("/api/users/13", Map.of(BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/users/{id}")));
+		assertEquals("api_users", n1);
+		assertSame(n1, n2); //cached
+		assertEquals("api_users", r.name(request("/api/users/12", Map.of(URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", "12")))));
+		assertEquals("api_users_12", r.name(request("/api/users/12", Map.of()))); //no mapping
+	}
+	
+	@ParameterizedTest
+	@CsvSource(delimiter = '|', value = {
+		"/**|/docs/index.html|docs_index.html",
+		"/*|/docs|docs",
+		"/{id}|/12|12",
+	})
+	void testName_emptyPattern(String pattern, String uri, String name) {
+		var r = new EndpointResolver();
+		assertEquals(name, r.name(request(uri, Map.of(BEST_MATCHING_PATTERN_ATTRIBUTE, pattern)))); //request name
+		assertEquals("other", r.name(request("/other", Map.of(BEST_MATCHING_PATTERN_ATTRIBUTE, pattern)))); //not cached
+	}
+	
+	@Test
+	void testStage() throws Exception {
+		var r = new EndpointResolver();
+		var s1 = r.stage(handler("named"));
+		assertEquals("getUsers", s1.name());
+		assertEquals(Updater.class, s1.updater()); //instantiated per request
+		assertSame(s1, r.stage(handler("named"))); //cached
+		var s2 = r.stage(handler("unnamed"));
+		assertNull(s2.name());
+		assertNull(s2.updater());
+		assertSame(NO_STAGE, r.stage(handler("none")));
+		assertSame(NO_STAGE, r.stage(new Object())); //static resource
+	}
+	
+	static HandlerMethod handler(String method) throws NoSuchMethodException {
+		return new HandlerMethod(new Controller(), method);
+	}
+	
+	static HttpServletRequest request(String uri, Map<String, Object> attributes) {
+		return (HttpServletRequest) Proxy.newProxyInstance(EndpointResolverTest.class.getClassLoader(), 
+				new Class<?>[] {HttpServletRequest.class}, (o, m, args)-> switch (m.getName()) {
+				case "getRequestURI" -> uri;
+				case "getContextPath" -> "";
+				case "getAttribute" -> attributes.get(args[0]);
+				default -> throw new UnsupportedOperationException(m.getName());
+				});
+	}
+	
+	static final class Controller {
+		
+		@TraceableStage(value = "getUsers", sessionUpdater = Updater.class)
+		public void named() { }
+		
+		@TraceableStage
+		public void unnamed() { }
+		
+		public void none() { }
+	}
+	
+	public static final class Updater implements StageUpdater { }
+}
@@ -0,0 +1,82 @@
+package org.usf.traceapi.core;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.usf.traceapi.core.EvictionPolicy.evictionPolicy;
+import static org.usf.traceapi.core.ScheduledSessionDispatcher.evict;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.usf.traceapi.core.EvictionBenchmark
+ * 
+ * @author u$f
+ *
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+public class EvictionBenchmark {
+	
+	@Param({"5000"})
+	int bufferMaxSize;
+	
+	@Param({"1", "500", "5000"}) //overflow : failed batch .. full ring buffer
+	int exceed;
+	
+	@Param({"errors", "fast-success"})
+	String policy;
+	
+	private List<Session> sessions;
+	private List<Session> backlog;
+	private EvictionPolicy eviction;
+	
+	@Setup
+	public void setup() {
+		var now = Instant.now();
+		sessions = new ArrayList<>();
+		for(var i=0; i<bufferMaxSize + exceed; i++) {
+			var s = new ApiSession();
+			s.setId("s" + i);
+			s.setStatus(i % 50 == 0 ? 500 : 200);
+			s.setStart(now);
+			s.setEnd(now.plusMillis(i % 2000));
+			sessions.add(s);
+		}
+		eviction = evictionPolicy(policy);
+	}
+	
+	@Setup(Level.Invocation)
+	public void fill() {
+		backlog = new ArrayList<>(sessions);
+	}
+	
+	@Benchmark
+	public List<Session> evictOverflow() {
+		return evict(backlog, exceed, eviction);
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(EvictionBenchmark.class.getSimpleName()).build()).run();
+	}
+}
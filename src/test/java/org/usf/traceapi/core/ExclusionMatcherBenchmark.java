@@ -0,0 +1,69 @@
+package org.usf.traceapi.core;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.usf.traceapi.core.ExclusionMatcherBenchmark
+ * 
+ * @author u$f
+ *
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+public class ExclusionMatcherBenchmark {
+	
+	static final String[] PATTERNS = Stream.concat(
+			Stream.of("/actuator/**", "/health", "/health/**", "/info", "/metrics/**", "/prometheus", "/error", "/favicon.ico",
+					"/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**", "/webjars/**", "/static/**", "/public/**", 
+					"/assets/**", "/css/**", "/js/**", "/img/**", "/fonts/**", "/robots.txt", "/**/*.map"),
+			Stream.of("admin", "internal", "debug", "jolokia", "h2-console", "console", "monitoring", "heapdump", "threaddump", 
+					"env", "beans", "loggers", "mappings", "caches", "scheduledtasks", "sessions", "shutdown", "startup", "flyway")
+			.map(s-> "/" + s + "/**"))
+			.toArray(String[]::new); //40 patterns
+	
+	@Param({"/api/users/42", "/actuator/prometheus", "/js/app.min.js.map"})
+	String path;
+
+	private final AntPathMatcher ant = new AntPathMatcher();
+	private final ExclusionMatcher matcher = new ExclusionMatcher(PATTERNS);
+	
+	@Benchmark
+	public boolean antPathMatcher() { //before
+		return Stream.of(PATTERNS).anyMatch(p-> ant.match(p, path));
+	}
+	
+	@Benchmark
+	public boolean compiled() {
+		return matcher.match(path);
+	}
+	
+	@Benchmark
+	public boolean cached() {
+		return matcher.test(path);
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ExclusionMatcherBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,80 @@
+package org.usf.traceapi.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.traceapi.core.ExclusionMatcher.MAX_PATHS;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class ExclusionMatcherTest {
+	
+	static final String[] PATTERNS = {"/actuator/**", "/health", "/static/*.js", "/api/{id}/ping", "/**/favicon.ico", "*.css"};
+
+	@ParameterizedTest
+	@CsvSource({
+		"/actuator,true", 
+		"/actuator/metrics/jvm.memory.used,true", 
+		"/health,true",
+		"/healthz,false",
+		"/static/app.js,true",
+		"/static/js/app.js,false",
+		"/api/12/ping,true",
+		"/api/12/pong,false",
+		"/a/b/favicon.ico,true",
+		"/css/main.css,false", //no leading slash : AntPathMatcher
+		"/api/users,false",
+	})
+	void testMatch(String path, boolean excluded) {
+		var m = new ExclusionMatcher(PATTERNS);
+		assertEquals(excluded, m.test(path));
+		assertEquals(excluded, m.test(path)); //cached
+		var ant = new AntPathMatcher();
+		assertEquals(excluded, Stream.of(PATTERNS).anyMatch(p-> ant.match(p, path))); //same as before
+	}
+	
+	@ParameterizedTest
+	@CsvSource({
+		"/health,/health/,false,false", //strict trailing slash
+		"/api/*,/api/,true,true",
+		"/actuator/**,/actuator,true,true",
+		"/actuator/**,/actuator/,true,true",
+		"/api/**/ping,/api/a/b/ping,true,true", //AntPathMatcher fallback
+		"/api/{*rest},/api/a/b,true,false", //PathPattern only
+		"/health,/health;a=b,true,false", //matrix variables
+	})
+	void testMatch_differences(String pattern, String path, boolean excluded, boolean ant) {
+		assertEquals(excluded, new ExclusionMatcher(pattern).test(path));
+		assertEquals(ant, new AntPathMatcher().match(pattern, path));
+	}
+	
+	@Test
+	void testMatch_bounded() {
+		var m = new ExclusionMatcher(PATTERNS);
+		for(var i=0; i<MAX_PATHS; i++) {
+			assertFalse(m.test("/api/users/" + i));
+		}
+		assertEquals(MAX_PATHS, m.cached());
+		assertTrue(m.test("/health")); //cleared when full
+		assertEquals(1, m.cached());
+		assertTrue(m.test("/health"));
+		assertFalse(m.test("/api/users/0"));
+		assertEquals(2, m.cached());
+	}
+	
+	@Test
+	void testMatch_empty() {
+		assertFalse(new ExclusionMatcher().test("/api"));
+		assertFalse(new ExclusionMatcher((String[]) null).test("/api"));
+	}
+}
@@ -0,0 +1,226 @@
+package org.usf.traceapi.core;
+
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+import static java.nio.file.Files.list;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.readAllLines;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.traceapi.core.FileTraceHandler.FILE_EXT;
+import static org.usf.traceapi.core.FileTraceHandler.FILE_NAME;
+import static org.usf.traceapi.core.SessionCodecTest.apiSession;
+import static org.usf.traceapi.core.SessionCodecTest.mainSession;
+import static org.usf.traceapi.core.SessionCodecTest.toJson;
+import static org.usf.traceapi.core.TraceMultiCaster.emit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.StandardEnvironment;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class FileTraceHandlerTest {
+	
+	@TempDir
+	Path dir;
+
+	@Test
+	void testWriteSessions() throws Exception {
+		var handler = new FileTraceHandler(properties(false));
+		try {
+			var sessions = List.of(apiSession(), mainSession());
+			handler.writeSessions(1, sessions);
+			handler.writeSessions(1, sessions);
+			var lines = readAllLines(dir.resolve(FILE_NAME + FILE_EXT));
+			assertEquals(4, lines.size());
+			var reader = JsonSessionCodec.createObjectMapper().readerFor(Session.class).without(FAIL_ON_UNKNOWN_PROPERTIES);
+			for(var i=0; i<lines.size(); i++) {
+				assertEquals(toJson(sessions.get(i % 2)), toJson(reader.readValue(lines.get(i))));
+			}
+		}
+		finally {
+			handler.shutdown();
+		}
+	}
+
+	@Test
+	void testRotate_compress() throws Exception {
+		var prop = properties(true);
+		prop.setFileMaxSize(1); //rotate on each batch
+		var handler = new FileTraceHandler(prop);
+		try {
+			handler.writeSessions(1, List.of(apiSession()));
+			handler.writeSessions(1, List.of(apiSession(), apiSession()));
+		}
+		finally {
+			handler.shutdown(); //await compression
+		}
+		assertEquals(2, readAllLines(dir.resolve(FILE_NAME + FILE_EXT)).size());
+		var closed = closedFiles();
+		assertEquals(1, closed.size());
+		assertTrue(closed.get(0).toString().endsWith(FILE_EXT + ".gz"));
+		try(var in = new GZIPInputStream(newInputStream(closed.get(0)))) {
+			assertEquals(1, new String(in.readAllBytes()).lines().count());
+		}
+	}
+	
+	@Test
+	void testWriteSessions_failure() throws Exception {
+		var fails = new int[] {1}; //2nd write
+		var handler = new FileTraceHandler(properties(false), fc-> new FailingChannel(fc, fails));
+		try {
+			var sessions = new ArrayList<Session>();
+			for(var i=0; i<3_000; i++) { //> buffer size : several writes
+				sessions.add(apiSession());
+			}
+			assertThrows(UncheckedIOException.class, ()-> handler.writeSessions(1, sessions));
+			assertEquals(0, readAllLines(dir.resolve(FILE_NAME + FILE_EXT)).size()); //truncated
+			handler.writeSessions(2, sessions); //retry
+			assertEquals(sessions.size(), readAllLines(dir.resolve(FILE_NAME + FILE_EXT)).size());
+		}
+		finally {
+			handler.shutdown();
+		}
+	}
+
+	@Test
+	void testDestroy() throws Exception {
+		var conf = new TraceConfiguration(new StandardEnvironment(), properties(false), "");
+		emit(apiSession());
+		emit(mainSession());
+		conf.destroy(); //drained & flushed
+		assertEquals(2, readAllLines(dir.resolve(FILE_NAME + FILE_EXT)).size());
+	}
+	
+	private List<Path> closedFiles() throws IOException {
+		try(var s = list(dir)) {
+			return s.filter(p-> p.getFileName().toString().startsWith(FILE_NAME + "-")).toList();
+		}
+	}
+	
+	private TraceConfigurationProperties properties(boolean compress) {
+		var prop = new TraceConfigurationProperties();
+		prop.setUnit("HOURS"); //manual dispatch
+		prop.setFileDirectory(dir.toString());
+		prop.setCompress(compress);
+		return prop;
+	}
+	
+	static final class FailingChannel extends FileChannel {
+		
+		private final FileChannel fc;
+		private final int[] fails; //writes before failure
+		
+		FailingChannel(FileChannel fc, int[] fails) {
+			this.fc = fc;
+			this.fails = fails;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			if(fails[0]-- == 0) {
+				throw new IOException("disk full");
+			}
+			return fc.write(src);
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			return fc.read(dst);
+		}
+
+		@Override
+		public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+			return fc.read(dsts, offset, length);
+		}
+
+		@Override
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			return fc.write(srcs, offset, length);
+		}
+
+		@Override
+		public long position() throws IOException {
+			return fc.position();
+		}
+
+		@Override
+		public FileChannel position(long newPosition) throws IOException {
+			fc.position(newPosition);
+			return this;
+		}
+
+		@Override
+		public long size() throws IOException {
+			return fc.size();
+		}
+
+		@Override
+		public FileChannel truncate(long size) throws IOException {
+			fc.truncate(size);
+			return this;
+		}
+
+		@Override
+		public void force(boolean metaData) throws IOException {
+			fc.force(metaData);
+		}
+
+		@Override
+		public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+			return fc.transferTo(position, count, target);
+		}
+
+		@Override
+		public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+			return fc.transferFrom(src, position, count);
+		}
+
+		@Override
+		public int read(ByteBuffer dst, long position) throws IOException {
+			return fc.read(dst, position);
+		}
+
+		@Override
+		public int write(ByteBuffer src, long position) throws IOException {
+			return fc.write(src, position);
+		}
+
+		@Override
+		public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+			return fc.map(mode, position, size);
+		}
+
+		@Override
+		public FileLock lock(long position, long size, boolean shared) throws IOException {
+			return fc.lock(position, size, shared);
+		}
+
+		@Override
+		public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+			return fc.tryLock(position, size, shared);
+		}
+
+		@Override
+		protected void implCloseChannel() throws IOException {
+			fc.close();
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package org.usf.traceapi.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class HeadSamplerTest {
+	
+	@ParameterizedTest
+	@CsvSource({
+		"/api/health, 0", 
+		"/api/users/1, 1000", 
+		"/api/orders, 1000", 
+		"/admin/jobs, 0",
+		"/web/a/b/ping, 0",
+		"/web/a/pong, 1000",
+		"nightlyBatch, 1000",
+		"purgeJob, 0"})
+	void testSample_pattern(String path, int expected) {
+		var rates = new LinkedHashMap<String, Double>();
+		rates.put("/api/health", 0.);
+		rates.put("/api/**", 1.);
+		rates.put("/admin/**", 0.);
+		rates.put("/web/**/ping", 0.); //AntPathMatcher fallback
+		rates.put("purge*", 0.);
+		var sampler = new HeadSampler(1, rates);
+		assertEquals(expected, count(sampler, path, 1000));
+	}
+
+	@Test
+	void testSample_rate() {
+		var n = count(new HeadSampler(.1, Map.of()), "/api", 100_000);
+		assertEquals(10_000, n, 1_000);
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = {-.1, 1.1})
+	void testSample_invalid(double rate) {
+		assertThrows(IllegalArgumentException.class, ()-> new HeadSampler(rate, Map.of()));
+		assertThrows(IllegalArgumentException.class, ()-> new HeadSampler(1, Map.of("/**", rate)));
+	}
+	
+	static int count(HeadSampler sampler, String path, int n) {
+		var c = 0;
+		for(var i=0; i<n; i++) {
+			if(sampler.sample(path)) {
+				c++;
+			}
+		}
+		return c;
+	}
+}
@@ -0,0 +1,32 @@
+package org.usf.traceapi.core;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.traceapi.core.Helper.EXECUTOR;
+import static org.usf.traceapi.core.Helper.basePackage;
+import static org.usf.traceapi.core.Helper.stackTraceElement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class HelperTest {
+	
+	@AfterEach
+	void reset() {
+		basePackage(null);
+	}
+
+	@Test
+	void testStackTraceElement_basePackage() {
+		assertFalse(stackTraceElement(EXECUTOR).isPresent());
+		basePackage("org.junit");
+		assertTrue(stackTraceElement(EXECUTOR).orElseThrow().getClassName().startsWith("org.junit"));
+		basePackage("org.apache.maven.surefire"); //context refresh
+		assertTrue(stackTraceElement(EXECUTOR).orElseThrow().getClassName().startsWith("org.apache.maven.surefire"));
+	}
+}
@@ -56,6 +56,7 @@ class JDBCActionTracerTest {
 		assertBetween(-1, 0, period[0].until(tr.getStart(), MILLIS), "start"); //delay=1
 		assertBetween( 0, 1, period[1].until(tr.getEnd(), MILLIS), "end");	//delay=1
 		assertBetween(duration, duration + 20, tr.duration(), "duration"); //delay=20
+		assertEquals(tr.duration(), tr.durationNanos() / 1_000_000, "duration.nanos");
 		assertArrayEquals(count, tr.getCount(), "count");
 		if(isNull(ex)) {
 			assertNull(tr.getException(), "exception");
@@ -0,0 +1,135 @@
+package org.usf.traceapi.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpMethod.PUT;
+import static org.usf.traceapi.core.AsyncTraceSenderTest.sessions;
+import static org.usf.traceapi.core.SessionCodec.codec;
+import static org.usf.traceapi.core.SessionCodecTest.toJson;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class RemoteTraceSenderTest {
+
+	@ParameterizedTest
+	@ValueSource(strings = {"json", "binary"})
+	void testWriteSessions_gzip(String format) throws Exception {
+		var codec = codec(format);
+		var sender = new RemoteTraceSender(properties(), new RestTemplate(), codec);
+		try {
+			var sessions = sessions(200);
+			var req = new Request();
+			sender.writeSessions(req, sessions);
+			assertEquals("gzip", req.getHeaders().getFirst(CONTENT_ENCODING));
+			assertEquals(codec.getContentType(), req.getHeaders().getContentType().toString());
+			assertFalse(req.body.closed); //streamed
+			try(var in = new GZIPInputStream(new ByteArrayInputStream(req.body.toByteArray()))) {
+				var res = codec.read(in);
+				assertEquals(sessions.size(), res.size());
+				for(var i=0; i<res.size(); i++) {
+					assertEquals(toJson(sessions.get(i)), toJson(res.get(i)));
+				}
+			}
+		}
+		finally {
+			sender.shutdown();
+		}
+	}
+
+	@Test
+	void testWriteSessions_failure() throws Exception {
+		var sender = new RemoteTraceSender(properties(), new RestTemplate(), new SessionCodec() {
+			@Override
+			public String getContentType() {
+				return "application/json";
+			}
+			@Override
+			public SessionWriter writer(OutputStream out) throws IOException {
+				throw new IOException("serialization error");
+			}
+			@Override
+			public List<Session> read(InputStream in) throws IOException {
+				throw new UnsupportedOperationException();
+			}
+		});
+		try {
+			var req = new Request();
+			assertThrows(IOException.class, ()-> sender.writeSessions(req, sessions(1)));
+			assertFalse(req.body.closed); //deflater ended, body left to the request
+		}
+		finally {
+			sender.shutdown();
+		}
+	}
+	
+	private static TraceConfigurationProperties properties() {
+		var prop = new TraceConfigurationProperties();
+		prop.setUnit("HOURS"); //manual dispatch
+		prop.setCompress(true);
+		return prop;
+	}
+	
+	static final class Request implements ClientHttpRequest {
+		
+		private final HttpHeaders headers = new HttpHeaders();
+		private final Body body = new Body();
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		@Override
+		public OutputStream getBody() {
+			return body;
+		}
+
+		@Override
+		public HttpMethod getMethod() {
+			return PUT;
+		}
+
+		@Override
+		public URI getURI() {
+			return URI.create("http://localhost/traces");
+		}
+
+		@Override
+		public ClientHttpResponse execute() {
+			throw new UnsupportedOperationException();
+		}
+	}
+	
+	static final class Body extends ByteArrayOutputStream {
+		
+		private boolean closed;
+		
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+}
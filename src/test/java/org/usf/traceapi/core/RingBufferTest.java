@@ -0,0 +1,82 @@
+package org.usf.traceapi.core;
+
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.IntStream.range;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class RingBufferTest {
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 3, 10, 100})
+	void testOffer_full(int capacity) {
+		var rb = new RingBuffer<Integer>(capacity);
+		range(0, capacity).forEach(i-> assertTrue(rb.offer(i)));
+		assertFalse(rb.offer(-1));
+		assertEquals(capacity, rb.size());
+		range(0, capacity).forEach(i-> assertEquals(i, rb.poll())); //FIFO
+		assertNull(rb.poll());
+		assertEquals(0, rb.size());
+		assertTrue(rb.offer(0)); //slot released
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 5, 10, 20, 50})
+	void testOffer_concurrent(int n) {
+		var rb = new RingBuffer<Integer>(64);
+		var rejected = new AtomicInteger();
+		var polled = new HashSet<Integer>();
+		var service = newFixedThreadPool(n);
+		var futures = range(0, n)
+		.mapToObj(i-> runAsync(()-> range(0, 100).forEach(j-> {
+			if(!rb.offer(i*100+j)) {
+				rejected.incrementAndGet();
+			}
+		}), service))
+		.toArray(CompletableFuture[]::new);
+		service.shutdown();
+		var all = allOf(futures);
+		while(!all.isDone() || !rb.isEmpty()) { //single consumer
+			for(Integer v; (v = rb.poll()) != null;) {
+				assertTrue(polled.add(v));
+			}
+		}
+		assertDoesNotThrow(()-> all.get());
+		assertEquals(n*100, polled.size() + rejected.get());
+	}
+
+	@Test
+	void testIterator() {
+		var rb = new RingBuffer<Integer>(5);
+		range(0, 4).forEach(rb::offer);
+		rb.poll();
+		var it = rb.iterator();
+		range(1, 4).forEach(i-> assertEquals(i, it.next()));
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	void testCapacity() {
+		assertThrows(IllegalArgumentException.class, ()-> new RingBuffer<>(0));
+		assertThrows(NullPointerException.class, ()-> new RingBuffer<>(1).offer(null));
+	}
+}
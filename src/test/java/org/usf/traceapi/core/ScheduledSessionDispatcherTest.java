@@ -0,0 +1,346 @@
+package org.usf.traceapi.core;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.usf.traceapi.core.ScheduledSessionDispatcher.Dispatcher;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class ScheduledSessionDispatcherTest {
+	
+	private SessionDispatcherProperties properties;
+	private ScheduledSessionDispatcher dispatcher;
+	
+	@BeforeEach
+	void init() {
+		properties = new SessionDispatcherProperties();
+		properties.setUnit(HOURS.name()); //manual dispatch
+		properties.setBufferMaxSize(10);
+	}
+	
+	@AfterEach
+	void shutdown() throws InterruptedException {
+		dispatcher.shutdown();
+	}
+
+	@Test
+	void testPopSessions_completed() {
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> true);
+		var s1 = new ApiSession();
+		var s2 = new MainSession();
+		assertTrue(dispatcher.add(s1, s2));
+		assertEquals(List.of(s1, s2), dispatcher.popSessions());
+		assertTrue(dispatcher.popSessions().isEmpty());
+	}
+
+	@Test
+	void testPopSessions_pending() {
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> true);
+		var s = new ApiSession();
+		s.lock();
+		assertTrue(dispatcher.add(s));
+		assertTrue(dispatcher.popSessions().isEmpty()); //not completed
+		dispatcher.complete(s); // unlock 
+		assertEquals(List.of(s), dispatcher.popSessions());
+		dispatcher.complete(s); //once
+		assertTrue(dispatcher.popSessions().isEmpty());
+	}
+
+	@Test
+	void testPopSessions_lockTimeout() throws InterruptedException {
+		properties.setUnit("MILLISECONDS");
+		properties.setDelay(3_600_000);
+		properties.setLockTimeout(1);
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> true);
+		var s = new ApiSession();
+		s.lock();
+		assertTrue(dispatcher.add(s));
+		Thread.sleep(5);
+		assertEquals(List.of(s), dispatcher.popSessions()); //orphan
+		assertEquals(Map.of("orphan.timeout", 1L), dispatcher.getEvictions());
+	}
+
+	@Test
+	void testPopSessions_pendingMaxSize() {
+		properties.setPendingMaxSize(2);
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> true);
+		var sessions = Stream.generate(ApiSession::new).limit(3).toList();
+		sessions.forEach(Session::lock);
+		assertTrue(dispatcher.add(sessions.toArray(Session[]::new)));
+		assertEquals(List.of(sessions.get(2)), dispatcher.popSessions()); //orphan
+		assertEquals(Map.of("orphan.overflow", 1L), dispatcher.getEvictions());
+		dispatcher.complete(sessions.get(2)); //not pending
+		assertTrue(dispatcher.popSessions().isEmpty());
+		dispatcher.complete(sessions.get(0));
+		assertEquals(List.of(sessions.get(0)), dispatcher.popSessions());
+	}
+
+	@Test
+	void testDispatch_spill(@TempDir Path dir) throws InterruptedException {
+		properties.setBufferMaxSize(2);
+		properties.setSpillDirectory(dir.toString());
+		var ok = new boolean[1];
+		var received = new ArrayList<Session>();
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> {
+			if(ok[0]) {
+				received.addAll(s);
+			}
+			return ok[0];
+		});
+		for(var i=0; i<5; i++) {
+			dispatcher.add(new ApiSession());
+			dispatcher.dispatch(); //fails
+			dispatcher.awaitDispatch();
+		}
+		assertTrue(received.isEmpty());
+		ok[0] = true;
+		dispatcher.dispatch(); //memory
+		dispatcher.awaitDispatch();
+		dispatcher.dispatch(); //replay
+		dispatcher.awaitDispatch();
+		assertEquals(5, received.size());
+	}
+
+	@Test
+	void testDispatch_workers() throws InterruptedException {
+		properties.setWorkers(3);
+		var latch = new CountDownLatch(3);
+		var batches = new ConcurrentLinkedQueue<List<Session>>();
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> {
+			latch.countDown();
+			try {
+				return latch.await(5, SECONDS) && batches.add(s); //in-flight together
+			} catch (InterruptedException e) {
+				return false;
+			}
+		});
+		for(var i=0; i<7; i++) {
+			dispatcher.add(new ApiSession());
+		}
+		dispatcher.dispatch();
+		dispatcher.awaitDispatch();
+		assertEquals(3, batches.size());
+		assertEquals(7, batches.stream().mapToInt(List::size).sum());
+		assertTrue(dispatcher.popSessions().isEmpty());
+	}
+
+	@Test
+	void testDispatch_circuitBreaker() throws InterruptedException {
+		properties.setBreakerThreshold(2);
+		properties.setProbeSize(3);
+		var ok = new boolean[1];
+		var sizes = new ArrayList<Integer>();
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> sizes.add(s.size()) && ok[0]);
+		for(var i=0; i<8; i++) {
+			dispatcher.add(new ApiSession());
+		}
+		dispatcher.dispatch();
+		dispatcher.awaitDispatch();
+		assertEquals(State.DISPACH, dispatcher.getState());
+		dispatcher.dispatch();
+		dispatcher.awaitDispatch();
+		assertEquals(State.CACHE, dispatcher.getState()); //opened
+		ok[0] = true;
+		dispatcher.dispatch(); //half-open
+		dispatcher.awaitDispatch();
+		assertEquals(State.DISPACH, dispatcher.getState()); //closed
+		dispatcher.dispatch();
+		dispatcher.awaitDispatch();
+		assertEquals(List.of(8, 8, 3, 5), sizes);
+	}
+
+	@Test
+	void testDispatch_circuitBreaker_workers() throws InterruptedException {
+		properties.setWorkers(4);
+		properties.setBreakerThreshold(2);
+		var batches = new ConcurrentLinkedQueue<Integer>();
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> !batches.add(s.size()));
+		for(var i=0; i<8; i++) {
+			dispatcher.add(new ApiSession());
+		}
+		dispatcher.dispatch();
+		dispatcher.awaitDispatch();
+		assertEquals(4, batches.size()); //4 failed batches
+		assertEquals(State.DISPACH, dispatcher.getState()); //1 failed round
+		dispatcher.dispatch();
+		dispatcher.awaitDispatch();
+		assertEquals(8, batches.size());
+		assertEquals(State.CACHE, dispatcher.getState()); //opened
+	}
+
+	@Test
+	void testDispatch_attempts() throws InterruptedException {
+		properties.setWorkers(4);
+		properties.setBreakerThreshold(10);
+		var attempts = new ConcurrentLinkedQueue<Integer>();
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> !attempts.add(n));
+		for(var i=0; i<8; i++) {
+			dispatcher.add(new ApiSession());
+		}
+		for(var i=0; i<3; i++) {
+			dispatcher.dispatch();
+			dispatcher.awaitDispatch();
+		}
+		assertEquals(List.of(1, 1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 3), attempts.stream().sorted().toList()); //per round, not per batch
+	}
+
+	@Test
+	void testDispatch_flushSize() throws InterruptedException {
+		properties.setFlushSize(5);
+		var batches = new LinkedBlockingQueue<Integer>();
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> batches.add(s.size()));
+		for(var i=0; i<4; i++) {
+			dispatcher.add(new ApiSession());
+		}
+		assertNull(batches.poll(100, MILLISECONDS)); //next tick in 5 hours
+		dispatcher.add(new ApiSession());
+		assertEquals(5, batches.poll(5, SECONDS));
+	}
+
+	@Test
+	void testDispatch_maxBatchBytes() throws InterruptedException {
+		properties.setMaxBatchBytes(2 * ScheduledSessionDispatcher.estimateSize(new ApiSession()));
+		var batches = new LinkedBlockingQueue<Integer>();
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> batches.add(s.size()));
+		for(var i=0; i<5; i++) {
+			dispatcher.add(new ApiSession());
+		}
+		dispatcher.dispatch();
+		assertEquals(2, batches.poll(5, SECONDS));
+		assertEquals(2, batches.poll(5, SECONDS)); //postponed, flushed on success
+		assertEquals(1, batches.poll(5, SECONDS));
+	}
+
+	@ParameterizedTest
+	@CsvSource({
+		"lifo, 0:1:2", 
+		"errors, 0:1:4", 
+		"slowest, 2:3:5", 
+		"fast-success, 1:4:5"})
+	void testDispatch_eviction(String policy, String kept) throws InterruptedException {
+		properties.setBufferMaxSize(3);
+		properties.setEvictionPolicy(policy);
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> false);
+		var status   = new int[] {200, 500, 200, 201, 503, 200};
+		var duration = new int[] { 10,  20,  30, 2000,  5, 3000};
+		var sessions = new ArrayList<Session>();
+		var now = Instant.now();
+		for(var i=0; i<status.length; i++) {
+			var s = new ApiSession();
+			s.setId("s" + i);
+			s.setStatus(status[i]);
+			s.setStart(now);
+			s.setEnd(now.plusMillis(duration[i]));
+			sessions.add(s);
+		}
+		for(var i=0; i<6; i+=3) {
+			assertTrue(dispatcher.add(sessions.subList(i, i+3).toArray(Session[]::new)));
+			dispatcher.dispatch(); //fails
+			dispatcher.awaitDispatch();
+		}
+		var exp = Stream.of(kept.split(":")).map(v-> sessions.get(Integer.parseInt(v))).toList();
+		assertEquals(exp, dispatcher.peekSessions());
+		assertEquals(3, dispatcher.getEvictions().values().stream().mapToLong(Long::longValue).sum());
+	}
+
+	@Test
+	void testGetSamplings() {
+		dispatcher = new ScheduledSessionDispatcher(properties, new TailSampler(0, .99), (Dispatcher) (n, s)-> true);
+		var s = new ApiSession();
+		s.setStatus(503);
+		dispatcher.add(s, new ApiSession());
+		assertEquals(1, dispatcher.popSessions().size());
+		assertEquals(Map.of("dropped", 1L, "kept.server-error", 1L), dispatcher.getSamplings());
+	}
+
+	@Test
+	void testBackoff() {
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> true);
+		var d = HOURS.toNanos(properties.getDelay());
+		for(var i=1; i<4; i++) {
+			var b = dispatcher.backoff(i);
+			assertTrue(b >= d/2 && b <= d, "attempts=" + i);
+			d <<= 1;
+		}
+		assertTrue(dispatcher.backoff(100) <= HOURS.toNanos(properties.getRetryMaxDelay()));
+	}
+
+	@Test
+	void testPopSessions_sampleRate() {
+		dispatcher = new ScheduledSessionDispatcher(properties, (SessionSampler) s-> .5, (Dispatcher) (n, s)-> true);
+		var s = new ApiSession();
+		s.setId("id");
+		s.setName("endpoint");
+		s.setStatus(200);
+		s.setSampleRate(.2);
+		assertTrue(dispatcher.add(s));
+		var cs = dispatcher.popSessions();
+		assertEquals(1, cs.size());
+		var c = (ApiSession) cs.get(0);
+		assertEquals(.1, c.getSampleRate(), 1e-9); //per handler copy
+		assertEquals(.2, s.getSampleRate()); //shared session unchanged
+		assertEquals("id", c.getId());
+		assertEquals("endpoint", c.getName());
+		assertEquals(200, c.getStatus());
+		assertSame(s.getQueries(), c.getQueries());
+	}
+
+	@Test
+	void testAdd_bufferFull() {
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> true);
+		dispatcher.updateState(State.CACHE); //flush requested : drained, not dispatched
+		for(var i=0; i<properties.getBufferMaxSize(); i++) {
+			assertTrue(dispatcher.add(new ApiSession()));
+		}
+		assertFalse(dispatcher.add(new ApiSession())); //rejected by the producer
+		assertEquals(properties.getBufferMaxSize(), dispatcher.popSessions().size());
+		assertEquals(Map.of("rejected.success", 1L), dispatcher.getEvictions());
+	}
+
+	@Test
+	void testAdd_circuitOpen() {
+		properties.setBufferMaxSize(3);
+		properties.setEvictionPolicy("errors");
+		var calls = new int[1];
+		dispatcher = new ScheduledSessionDispatcher(properties, (n, s)-> calls[0]++ < 0);
+		dispatcher.updateState(State.CACHE);
+		var status = new int[] {200, 500, 200, 201, 503, 200, 200};
+		var sessions = new ArrayList<Session>();
+		for(var i=0; i<status.length; i++) {
+			var s = new ApiSession();
+			s.setStatus(status[i]);
+			sessions.add(s);
+			assertTrue(dispatcher.add(s));
+			dispatcher.tryDispatch(); //drained, not dispatched : policy applied
+		}
+		assertEquals(0, calls[0]);
+		assertEquals(List.of(sessions.get(0), sessions.get(1), sessions.get(4)), dispatcher.peekSessions());
+		assertEquals(Map.of("dropped.success", 4L), dispatcher.getEvictions());
+	}
+}
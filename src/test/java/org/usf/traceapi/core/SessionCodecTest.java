@@ -0,0 +1,213 @@
+package org.usf.traceapi.core;
+
+import static java.time.temporal.ChronoUnit.MICROS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.traceapi.core.JDBCAction.CONNECTION;
+import static org.usf.traceapi.core.JDBCAction.EXECUTE;
+import static org.usf.traceapi.core.LaunchMode.BATCH;
+import static org.usf.traceapi.core.SessionCodec.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class SessionCodecTest {
+	
+	static final ObjectMapper mapper = JsonSessionCodec.createObjectMapper();
+	static final Instant now = Instant.now().truncatedTo(MICROS);
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"json", "binary"})
+	void testRoundTrip(String format) throws IOException {
+		var sessions = List.of(apiSession(), mainSession(), new ApiSession(), new MainSession());
+		assertRoundTrip(codec(format), sessions);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"json", "binary"})
+	void testRoundTrip_empty(String format) throws IOException {
+		assertRoundTrip(codec(format), List.of());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10, 1000})
+	void testRoundTrip_large(int n) throws IOException {
+		var sessions = new ArrayList<Session>(n);
+		for(var i=0; i<n; i++) {
+			var s = apiSession();
+			s.setQuery("q=".repeat(i % 50_000)); //buffer overflow
+			sessions.add(s);
+		}
+		assertRoundTrip(new BinarySessionCodec(), sessions);
+	}
+	
+	@Test
+	void testBinary_smaller() throws IOException {
+		var sessions = List.of(apiSession(), mainSession());
+		var json = new ByteArrayOutputStream();
+		new JsonSessionCodec().write(json, sessions);
+		var bin = new ByteArrayOutputStream();
+		new BinarySessionCodec().write(bin, sessions);
+		assertTrue(bin.size() * 2 < json.size());
+	}
+
+	@Test
+	void testBinary_dictionary() throws IOException {
+		var codec = new BinarySessionCodec();
+		var one = new ByteArrayOutputStream();
+		codec.write(one, List.of(apiSession()));
+		var sessions = new ArrayList<Session>();
+		for(var i=0; i<100; i++) {
+			sessions.add(apiSession());
+		}
+		var all = new ByteArrayOutputStream();
+		codec.write(all, sessions);
+		assertTrue(all.size() < one.size() * 60); //repeated metadata sent once
+		assertRoundTrip(codec, sessions);
+	}
+
+	@Test
+	void testBinary_corrupted() {
+		var codec = new BinarySessionCodec();
+		assertThrows(StreamCorruptedException.class, ()-> codec.read(new ByteArrayInputStream(new byte[] {'T', 'X', 1, 0})));
+		assertThrows(StreamCorruptedException.class, ()-> codec.read(new ByteArrayInputStream(new byte[] {'T', 'R', 1, 9})));
+		assertThrows(StreamCorruptedException.class, ()-> codec.read(new ByteArrayInputStream(new byte[] {'T', 'R', 2, 0}))); //unsupported version
+		assertThrows(StreamCorruptedException.class, ()-> codec.read(new ByteArrayInputStream(new byte[] {'T', 'R', 1, 1, 5}))); //unknown symbol
+		assertThrows(IOException.class, ()-> codec.read(new ByteArrayInputStream(new byte[] {'T', 'R', 1, 1, 1, 3, 'a'}))); //EOF
+	}
+
+	@Test
+	void testBinary_corruptedLength() {
+		var codec = new BinarySessionCodec();
+		var huge = new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F}; //~4G
+		assertThrows(StreamCorruptedException.class, ()-> codec.read(binary(new byte[] {'T', 'R', 1, 2, 1}, huge))); //string
+		assertThrows(StreamCorruptedException.class, ()-> codec.read(binary(new byte[] {'T', 'R', 1, 2, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1}, huge))); //children
+		assertThrows(StreamCorruptedException.class, ()-> codec.read(binary(new byte[] {'T', 'R', 1, 2, 0, 0, 0, 0, 0, 0, 0, 0, 99}))); //launch mode
+	}
+	
+	static ByteArrayInputStream binary(byte[]... parts) {
+		var out = new ByteArrayOutputStream();
+		for(var p : parts) {
+			out.writeBytes(p);
+		}
+		return new ByteArrayInputStream(out.toByteArray());
+	}
+	
+	static void assertRoundTrip(SessionCodec codec, List<? extends Session> sessions) throws IOException {
+		var out = new ByteArrayOutputStream();
+		codec.write(out, sessions);
+		var res = codec.read(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(sessions.size(), res.size());
+		for(var i=0; i<sessions.size(); i++) {
+			assertEquals(sessions.get(i).getClass(), res.get(i).getClass());
+			assertEquals(toJson(sessions.get(i)), toJson(res.get(i)));
+		}
+	}
+	
+	static String toJson(Session s) throws IOException {
+		return mapper.writerFor(Session.class).writeValueAsString(s);
+	}
+
+	static ApiSession apiSession() {
+		var s = new ApiSession();
+		s.setId(Session.nextId());
+		fill(s);
+		s.setStatus(500);
+		s.setApplication(new ApplicationInfo("app", "1.0", "127.0.0.1", "dev", "linux", "java 17"));
+		s.setSampleRate(.125);
+		s.setException(new ExceptionInfo(IOException.class.getName(), "dummy msg"));
+		s.append(apiRequest());
+		s.append(databaseRequest());
+		s.append(databaseRequest());
+		s.append(stage());
+		return s;
+	}
+
+	static MainSession mainSession() {
+		var s = new MainSession();
+		s.setId(Session.nextId());
+		s.setName("main");
+		s.setLocation("org.usf.Main");
+		s.setStart(now);
+		s.setEnd(now.plusSeconds(3600));
+		s.setLaunchMode(BATCH);
+		s.setSampleRate(.5);
+		s.append(stage());
+		s.append(databaseRequest());
+		return s;
+	}
+
+	static ApiRequest apiRequest() {
+		var r = new ApiRequest();
+		fill(r);
+		r.setStatus(200);
+		return r;
+	}
+	
+	static void fill(ApiRequest r) {
+		r.setName("api_users");
+		r.setStart(now);
+		r.setEnd(now.plusNanos(1_234_000));
+		r.setHeadersNanos(987_000);
+		r.setThreadName("http-nio-8080-exec-1");
+		r.setMethod("GET");
+		r.setProtocol("https");
+		r.setHost("localhost");
+		r.setPort(-1);
+		r.setPath("/api/users/1");
+		r.setQuery("sort=name");
+		r.setContentType("application/json");
+		r.setAuthScheme("Bearer");
+		r.setInDataSize(-1);
+		r.setOutDataSize(1_000_000);
+	}
+
+	static DatabaseRequest databaseRequest() {
+		var q = new DatabaseRequest();
+		q.setName("getUsers");
+		q.setLocation("org.usf.UserDao");
+		q.setStart(now.minusSeconds(1));
+		q.setThreadName("main");
+		q.setHost("db.server");
+		q.setPort(5432);
+		q.setDatabase("users");
+		q.setDatabaseName("PostgreSQL");
+		q.setDatabaseVersion("15.2");
+		q.setDriverVersion("42.5.4");
+		q.setUser("sa");
+		q.setActions(List.of(
+				new DatabaseAction(CONNECTION, now.minusSeconds(1), now, null), 
+				new DatabaseAction(EXECUTE, now, now.plusMillis(2), new ExceptionInfo("java.sql.SQLException", null), new long[] {1, -1, 3})));
+		q.setCommands(Arrays.asList(SqlCommand.SELECT, null, SqlCommand.SQL));
+		return q;
+	}
+
+	static RunnableStage stage() {
+		var st = new RunnableStage();
+		st.setName("stage");
+		st.setLocation("org.usf.Service");
+		st.setStart(now.minusMillis(5));
+		st.setEnd(now.minusMillis(1));
+		st.setUser("user");
+		st.setThreadName("pool-1-thread-1");
+		return st;
+	}
+}
@@ -0,0 +1,161 @@
+package org.usf.traceapi.core;
+
+import static java.nio.file.Files.list;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class SpillLogTest {
+	
+	@TempDir
+	Path dir;
+
+	@Test
+	void testAppend_peek_commit() throws IOException {
+		try(var log = new SpillLog(dir, 1024, 4096)) {
+			assertTrue(log.isEmpty());
+			assertTrue(log.append(bytes(1, 100)));
+			assertTrue(log.append(bytes(2, 200)));
+			assertArrayEquals(bytes(1, 100), log.peek());
+			assertArrayEquals(bytes(1, 100), log.peek()); //not committed
+			log.commit();
+			assertArrayEquals(bytes(2, 200), log.peek());
+			log.commit();
+			assertNull(log.peek());
+			assertThrows(IllegalStateException.class, log::commit);
+		}
+	}
+
+	@Test
+	void testAppend_rotation() throws IOException {
+		try(var log = new SpillLog(dir, 1024, 4096)) {
+			for(var i=0; i<4; i++) {
+				assertTrue(log.append(bytes(i, 900))); //1 record per segment
+			}
+			assertEquals(4, segments());
+			assertFalse(log.append(bytes(5, 900))); //full
+			assertFalse(log.append(bytes(5, 2000))); //too large
+			for(var i=0; i<4; i++) {
+				assertArrayEquals(bytes(i, 900), log.peek());
+				log.commit();
+			}
+			assertTrue(log.isEmpty());
+			assertEquals(1, segments()); //write segment
+			assertTrue(log.append(bytes(6, 900)));
+		}
+	}
+
+	@Test
+	void testRecover() throws IOException {
+		try(var log = new SpillLog(dir, 1024, 8192)) {
+			for(var i=0; i<5; i++) {
+				assertTrue(log.append(bytes(i, 300)));
+			}
+			log.peek();
+			log.commit();
+			log.peek();
+			log.commit();
+		}
+		try(var log = new SpillLog(dir, 1024, 8192)) { //restart
+			assertTrue(log.append(bytes(5, 300)));
+			for(var i=2; i<6; i++) {
+				assertArrayEquals(bytes(i, 300), log.peek());
+				log.commit();
+			}
+			assertNull(log.peek());
+		}
+		try(var log = new SpillLog(dir, 1024, 8192)) { //consumed
+			assertNull(log.peek());
+		}
+	}
+
+	@Test
+	void testRecover_corrupted() throws IOException {
+		try(var log = new SpillLog(dir, 1024, 4096)) {
+			assertTrue(log.append(bytes(1, 100)));
+			assertTrue(log.append(bytes(2, 100)));
+		}
+		try(var fc = FileChannel.open(dir.resolve(String.format("%020d", 0) + SpillLog.SEGMENT_EXT), WRITE)) {
+			fc.write(ByteBuffer.wrap(new byte[] {-1}), SpillLog.HEADER + 108 + 50); //2nd record payload
+		}
+		try(var log = new SpillLog(dir, 1024, 4096)) {
+			assertArrayEquals(bytes(1, 100), log.peek());
+			log.commit();
+			assertNull(log.peek()); //crc mismatch, skipped
+			assertTrue(log.append(bytes(3, 100))); //after the corrupted record
+			assertArrayEquals(bytes(3, 100), log.peek());
+		}
+	}
+
+	@Test
+	void testPeek_corrupted() throws IOException {
+		try(var log = new SpillLog(dir, 1024, 4096)) {
+			for(var i=0; i<4; i++) {
+				assertTrue(log.append(bytes(i, 300))); //3 records per segment
+			}
+			assertEquals(2, segments());
+			try(var fc = FileChannel.open(dir.resolve(String.format("%020d", 0) + SpillLog.SEGMENT_EXT), WRITE)) {
+				fc.write(ByteBuffer.wrap(new byte[] {-1}), SpillLog.HEADER + 308 + 50); //2nd record payload
+			}
+			assertArrayEquals(bytes(0, 300), log.peek());
+			log.commit();
+			assertArrayEquals(bytes(2, 300), log.peek()); //resync
+			log.commit();
+			assertArrayEquals(bytes(3, 300), log.peek());
+			log.commit();
+			assertEquals(1, segments()); //consumed segment deleted
+			assertNull(log.peek());
+		}
+		try(var log = new SpillLog(dir, 1024, 4096)) { //consumed
+			assertNull(log.peek());
+		}
+	}
+	
+	@Test
+	void testClose() throws IOException {
+		var log = new SpillLog(dir, 1024, 4096);
+		assertTrue(log.append(bytes(1, 100)));
+		log.peek();
+		log.close();
+		assertThrows(IOException.class, ()-> log.append(bytes(2, 100)));
+		assertThrows(IOException.class, log::peek);
+		assertThrows(IOException.class, log::commit);
+		log.close(); //idempotent
+		try(var re = new SpillLog(dir, 1024, 4096)) {
+			assertArrayEquals(bytes(1, 100), re.peek()); //not overwritten
+			re.commit();
+			assertNull(re.peek());
+		}
+	}
+	
+	private long segments() throws IOException {
+		try(var s = list(dir)) {
+			return s.filter(p-> p.toString().endsWith(SpillLog.SEGMENT_EXT)).count();
+		}
+	}
+	
+	static byte[] bytes(int v, int size) {
+		var arr = new byte[size];
+		for(var i=0; i<size; i++) {
+			arr[i] = (byte) (v + i);
+		}
+		return arr;
+	}
+}
@@ -0,0 +1,73 @@
+package org.usf.traceapi.core;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.usf.traceapi.core.SqlCommandBenchmark
+ * 
+ * @author u$f
+ *
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+public class SqlCommandBenchmark {
+	
+	static final String[] QUERIES = {
+		"select u.id, u.login, u.email from users u where u.id = ?", //JPA
+		"insert into audit_log (id, created_at, user_id, action, payload) values (?, ?, ?, ?, ?)",
+		"update orders set status = ?, updated_at = current_timestamp where id = ? and version = ?",
+		"DELETE FROM sessions WHERE expires_at < ?",
+		"/* UserRepository.findActive */ SELECT id, name FROM users -- active only\nWHERE active = 1",
+		"WITH RECURSIVE tree(id, parent_id, depth) AS (SELECT id, parent_id, 0 FROM category WHERE parent_id IS NULL "
+			+ "UNION ALL SELECT c.id, c.parent_id, t.depth + 1 FROM category c JOIN tree t ON c.parent_id = t.id) "
+			+ "SELECT id, depth FROM tree ORDER BY depth",
+		"WITH cte_sales AS (SELECT EmployeeID, COUNT(OrderID) AS Orders, ShipperID FROM Orders GROUP BY EmployeeID, ShipperID), "
+			+ "shipper_cte AS (SELECT * FROM cte_sales WHERE ShipperID=2 OR ShipperID=3) "
+			+ "SELECT ShipperID, AVG(Orders) average_order_per_employee FROM shipper_cte GROUP BY ShipperID",
+		"INSERT INTO notes(msg) VALUES ('done; see ticket ''42''')",
+		"CREATE TABLE tmp_export AS SELECT * FROM orders WHERE created_at > ?; GRANT SELECT ON tmp_export TO reporting",
+	};
+	
+	@Param({"0", "1", "2", "3", "4", "5", "6", "7", "8"})
+	int index;
+	
+	String query;
+	
+	@Setup
+	public void setup() {
+		query = QUERIES[index];
+	}
+	
+	@Benchmark
+	public SqlCommand parse() {
+		return SqlCommand.parse(query);
+	}
+	
+	@Benchmark
+	public SqlCommand cached() { //same instance : prepared statement
+		return SqlCommand.mainCommand(query);
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(SqlCommandBenchmark.class.getSimpleName()).build()).run();
+	}
+}
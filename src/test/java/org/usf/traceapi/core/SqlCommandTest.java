@@ -35,6 +35,19 @@ class SqlCommandTest {
 		"SELECT,'WITH cte_sales AS(SELECT EmployeeID, COUNT(OrderID) as Orders, ShipperID FROM Orders GROUP BY EmployeeID, ShipperID), shipper_cte AS (SELECT * FROM cte_sales WHERE ShipperID=2 or ShipperID=3) SELECT ShipperID, AVG(Orders) average_order_per_employee FROM shipper_cte GROUP BY ShipperID;'",
 		"SQL,'DELETE FROM Students WHERE RollNo = 25; SELECT FirstName FROM Student  WHERE RollNo > 15;",
 		"SQL,'CREATE TABLE students;CREATE VIEW for_students;'",
+		"SELECT,'WITH RECURSIVE tree(id, parent) AS (SELECT id, parent FROM node WHERE parent IS NULL UNION ALL SELECT n.id, n.parent FROM node n JOIN tree t ON n.parent = t.id) SELECT * FROM tree;'",
+		"SELECT,'WITH a AS MATERIALIZED (WITH b AS (SELECT 1 AS x) SELECT x FROM b), c AS NOT MATERIALIZED (SELECT 2) SELECT * FROM a, c'",
+		"INSERT,'WITH src AS (SELECT * FROM staging) INSERT INTO target SELECT * FROM src'",
+		"SELECT,'(SELECT id FROM a) UNION (SELECT id FROM b)'",
+		"SELECT,'/* report ; query */ -- header comment\nSELECT id FROM t'",
+		"INSERT,'INSERT INTO logs(msg) VALUES (''done; DROP TABLE logs'')'",
+		"UPDATE,'UPDATE t SET note = \"a;b\" WHERE id = 1; -- trailing comment'",
+		"INSERT,'INSERT INTO t(v) VALUES (E''it\\''s; DROP TABLE t'')'",
+		"UPDATE,'UPDATE t SET v = e''say \\''a;b\\'''', w = ''\\\\'' WHERE id = 1'",
+		"SELECT,'SELECT * FROM t WHERE p = ''C:\\'''",
+		"SQL,'SELECT * FROM t WHERE p = ''C:\\'' ; DELETE FROM t'",
+		"SQL,'SELECT * FROM t WHERE p = \"C:\\\" ; DELETE FROM t'",
+		"SQL,'SELECT * FROM t WHERE type''\\'' ; DELETE FROM t'",
 	})
 	void testMainCommand(SqlCommand cmd, String sql) {
 		assertEquals(cmd, mainCommand(sql));
@@ -52,6 +65,17 @@ class SqlCommandTest {
 		assertEquals(null, mainCommand(sql));
 	}
 
+	@ParameterizedTest
+	@CsvSource({
+		"'SELECT id FROM t WHERE id = ?'",
+		"'WITH RECURSIVE tree AS (SELECT 1) SELECT * FROM tree'",
+	})
+	void testMainCommand_cache(String sql) {
+		assertEquals(SqlCommand.parse(sql), mainCommand(sql));
+		assertEquals(SqlCommand.parse(sql), mainCommand(sql)); //same instance
+		assertEquals(mainCommand(sql), mainCommand(new String(sql))); //other instance
+	}
+
 	@ParameterizedTest
 	@NullSource
 	void testMainCommand_null(String sql) {
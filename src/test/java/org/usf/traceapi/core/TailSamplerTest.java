@@ -0,0 +1,125 @@
+package org.usf.traceapi.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.traceapi.core.Samplers.MAX_ENDPOINTS;
+import static org.usf.traceapi.core.Samplers.withSampleRate;
+import static org.usf.traceapi.core.SessionCodecTest.apiSession;
+import static org.usf.traceapi.core.SessionCodecTest.mainSession;
+import static org.usf.traceapi.core.SessionCodecTest.toJson;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.usf.traceapi.core.TailSampler.Histogram;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class TailSamplerTest {
+	
+	@Test
+	void testTest_failed() {
+		var sampler = new TailSampler(0, .99);
+		var s = session("/api", 200, 10);
+		assertFalse(sampler.test(s));
+		s.setStatus(503);
+		assertTrue(sampler.test(s));
+		s.setStatus(200);
+		s.setException(new ExceptionInfo("java.lang.IllegalStateException", null));
+		assertTrue(sampler.test(s));
+		assertEquals(1, sampler.getCounters().get("dropped"));
+		assertEquals(1, sampler.getCounters().get("kept.server-error"));
+		assertEquals(1, sampler.getCounters().get("kept.exception"));
+	}
+
+	@Test
+	void testTest_slow() {
+		var sampler = new TailSampler(0, .9);
+		for(var i=0; i<1000; i++) {
+			assertFalse(sampler.test(session("/api/fast", 200, 10 + i % 10))); //10..19 ms
+		}
+		assertTrue(sampler.test(session("/api/fast", 200, 100)));
+		assertFalse(sampler.test(session("/api/slow", 200, 100))); //per endpoint : warmup
+	}
+
+	@Test
+	void testTest_maxEndpoints() {
+		var sampler = new TailSampler(0, .9);
+		for(var i=0; i<1000; i++) {
+			sampler.test(session("/api/fast", 200, 10 + i % 10));
+		}
+		for(var i=0; i<2 * MAX_ENDPOINTS; i++) {
+			sampler.test(session("/api/" + i, 200, 1000)); //beyond MAX_ENDPOINTS : shared
+		}
+		assertTrue(sampler.test(session("/api/fast", 200, 100))); //known endpoint : own histogram
+	}
+
+	@Test
+	void testTest_budget() {
+		var sampler = new TailSampler(1, .9, s-> 0); //budget exhausted
+		for(var i=0; i<1000; i++) {
+			assertFalse(sampler.test(session("/api", 200, 10 + i % 10)));
+		}
+		assertTrue(sampler.test(session("/api", 200, 100))); //slow : not budgeted
+		assertTrue(sampler.test(session("/api", 500, 10)));
+		assertEquals(1000, sampler.getCounters().get("dropped.budget"));
+		assertEquals(1, sampler.getCounters().get("kept.slow"));
+		assertEquals(1, sampler.getCounters().get("kept.server-error"));
+	}
+
+	@Test
+	void testSample_probability() {
+		var sampler = new TailSampler(1, .9, s-> .25);
+		var s = session("/api", 200, 10);
+		assertEquals(.25, sampler.sample(s)); //rate * budget
+		assertEquals(1, s.getSampleRate()); //shared session unchanged
+		s.setStatus(500);
+		assertEquals(1, sampler.sample(s)); //kept : not budgeted
+	}
+
+	@Test
+	void testWithSampleRate() throws Exception {
+		for(var s : List.of(apiSession(), mainSession())) {
+			var c = withSampleRate(s, s.getSampleRate());
+			assertNotSame(s, c);
+			assertEquals(toJson(s), toJson(c)); //same content
+		}
+	}
+
+	@Test
+	void testTest_rate() {
+		var sampler = new TailSampler(.1, .99);
+		var n = 0;
+		for(var i=0; i<100_000; i++) {
+			if(sampler.test(session("/api", 200, 10))) {
+				n++;
+			}
+		}
+		assertEquals(10_000, n, 1_000);
+	}
+
+	@ParameterizedTest
+	@CsvSource({"0,0", "3,3", "4,8", "5,9", "7,11", "8,12", "1000,39", "9223372036854775807,251"})
+	void testHistogram_index(long v, int idx) {
+		assertEquals(idx, Histogram.index(v));
+	}
+	
+	static ApiSession session(String path, int status, int millis) {
+		var s = new ApiSession();
+		var now = Instant.now();
+		s.setPath(path);
+		s.setName(path); //endpoint
+		s.setStatus(status);
+		s.setStart(now);
+		s.setEnd(now.plusMillis(millis));
+		return s;
+	}
+}
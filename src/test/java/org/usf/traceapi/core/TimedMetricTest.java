@@ -0,0 +1,119 @@
+package org.usf.traceapi.core;
+
+import static java.lang.System.nanoTime;
+import static java.time.temporal.ChronoUnit.NANOS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.usf.traceapi.core.TraceClock.anchor;
+import static org.usf.traceapi.core.TraceClock.clock;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class TimedMetricTest {
+	
+	private static final long MS = MILLISECONDS.toNanos(1);
+
+	@Test
+	void testLazyInstant() {
+		var clock = anchor();
+		var t = nanoTime();
+		var s = new RunnableStage();
+		s.start(clock, t);
+		s.end(t + 5 * MS + 123);
+		var start = s.getStart();
+		assertEquals(clock.instant(t), start);
+		assertSame(start, s.getStart()); //materialized once
+		assertEquals(5 * MS + 123, NANOS.between(start, s.getEnd()));
+		assertSame(s.getEnd(), s.getEnd());
+		assertEquals(5, s.duration());
+		assertEquals(5 * MS + 123, s.durationNanos());
+	}
+
+	@Test
+	void testGetEnd_notEnded() {
+		var t = nanoTime();
+		var s = new RunnableStage();
+		s.start(anchor(), t);
+		assertNotNull(s.getStart());
+		assertNull(s.getEnd());
+		assertEquals(-1, s.duration());
+		assertEquals(-1, s.durationNanos());
+		assertEquals(-1, s.endNanos());
+		s.end(t + MS);
+		assertNotNull(s.getEnd()); //not cached before end
+		assertEquals(t + MS, s.endNanos());
+	}
+
+	@Test
+	void testEnd_notStarted() {
+		var s = new RunnableStage();
+		assertThrows(IllegalStateException.class, ()-> s.end(nanoTime()));
+	}
+
+	@Test
+	void testSetEnd_detach() {
+		var t = nanoTime();
+		var s = new RunnableStage();
+		s.start(anchor(), t);
+		s.end(t + MS);
+		var start = s.getStart();
+		var end = start.plusMillis(42);
+		s.setEnd(end);
+		assertNull(s.getClock()); //detached
+		assertEquals(start, s.getStart()); //materialized before detach
+		assertEquals(end, s.getEnd());
+		assertEquals(42, s.duration());
+		assertEquals(-1, s.endNanos());
+	}
+
+	@Test
+	void testSetStart_detach() {
+		var t = nanoTime();
+		var s = new RunnableStage();
+		s.start(anchor(), t);
+		s.end(t + 10 * MS);
+		var end = s.getEnd();
+		s.setStart(end.minusMillis(3));
+		assertNull(s.getClock());
+		assertEquals(end, s.getEnd());
+		assertEquals(3, s.duration());
+		assertEquals(3 * MS, s.durationNanos());
+	}
+
+	@Test
+	void testSetStart_notEnded() {
+		var s = new RunnableStage();
+		s.start(anchor(), nanoTime());
+		var now = Instant.now();
+		s.setStart(now);
+		assertNull(s.getEnd()); //still not ended
+		assertEquals(-1, s.duration());
+	}
+
+	@Test
+	void testSharedAnchor() {
+		var session = new ApiSession();
+		var t = nanoTime();
+		session.start(anchor(), t);
+		var clock = clock(session);
+		assertSame(session.getClock(), clock); //shared
+		var stage = new RunnableStage();
+		stage.start(clock, t + 7 * MS);
+		stage.end(t + 9 * MS);
+		session.end(t + 10 * MS);
+		assertEquals(7 * MS, NANOS.between(session.getStart(), stage.getStart())); //no drift between anchors
+		assertEquals(MS, NANOS.between(stage.getEnd(), session.getEnd()));
+		assertNotNull(clock(new MainSession())); //not started : new anchor
+	}
+}
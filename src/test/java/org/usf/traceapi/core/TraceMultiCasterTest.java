@@ -6,16 +6,24 @@ import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.stream.IntStream.range;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.usf.traceapi.core.TraceMultiCaster.OverflowPolicy.DROP;
 import static org.usf.traceapi.core.TraceMultiCaster.emit;
 import static org.usf.traceapi.core.TraceMultiCaster.handlers;
 import static org.usf.traceapi.core.TraceMultiCaster.register;
+import static org.usf.traceapi.core.TraceMultiCaster.unregister;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
-import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.usf.traceapi.core.TraceMultiCaster.HandlerWorker;
 
 /**
  * 
@@ -25,8 +33,9 @@ import org.junit.jupiter.params.provider.ValueSource;
  */
 class TraceMultiCasterTest {
 	
-	@BeforeEach
-	void clearHandlers() {
+	@AfterEach
+	void closeHandlers() {
+		handlers.forEach(HandlerWorker::close); //no thread leak
 		handlers.clear();
 	}
 
@@ -44,7 +53,7 @@ class TraceMultiCasterTest {
 
 	@ParameterizedTest
 	@ValueSource(ints = {1, 5, 10, 20, 50, 100})
-	void testEmit(int n) {
+	void testEmit(int n) throws InterruptedException {
 		var arr = new int[10];
 		range(0, arr.length).forEach(i-> register(s-> {++arr[i];}));
 		var service = newFixedThreadPool(n);
@@ -53,6 +62,116 @@ class TraceMultiCasterTest {
 		.toArray(CompletableFuture[]::new);
 		service.shutdown();
 		assertDoesNotThrow(()-> allOf(futures).get());
+		awaitHandlers();
 		IntStream.of(arr).forEach(s-> assertEquals(n, s));
 	}
+
+	@Test
+	void testEmit_isolated() throws InterruptedException {
+		var latch = new CountDownLatch(1);
+		var count = new AtomicInteger();
+		register(s-> {
+			try {
+				latch.await(); //slow handler
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, 2, DROP);
+		register(s-> {throw new IllegalStateException();});
+		register(s-> count.incrementAndGet());
+		for(var i=0; i<10; i++) {
+			emit(new ApiSession()); //never blocks
+		}
+		latch.countDown();
+		awaitHandlers();
+		assertEquals(10, count.get());
+		assertTrue(handlers.get(0).getDropped() > 0);
+	}
+
+	@Test
+	void testComplete() throws InterruptedException {
+		var completed = new AtomicInteger();
+		register(new TraceHandler() {
+			@Override
+			public void handle(Session session) { }
+			@Override
+			public void complete(Session session) {
+				completed.incrementAndGet();
+			}
+		});
+		var s = new ApiSession();
+		s.lock();
+		emit(s);
+		s.unlock();
+		awaitHandlers();
+		assertEquals(1, completed.get());
+		var u = new ApiSession(); 
+		u.lock();
+		u.unlock(); //not emitted
+		assertEquals(1, completed.get());
+	}
+
+	@Test
+	void testComplete_queueFull() throws InterruptedException {
+		var latch = new CountDownLatch(1);
+		var completed = new AtomicInteger();
+		register(new TraceHandler() {
+			@Override
+			public void handle(Session session) {
+				try {
+					latch.await(); //slow handler
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			@Override
+			public void complete(Session session) {
+				completed.incrementAndGet();
+			}
+		}, 1, DROP);
+		var sessions = new ApiSession[5];
+		for(var i=0; i<sessions.length; i++) {
+			sessions[i] = new ApiSession();
+			sessions[i].lock();
+			emit(sessions[i]);
+		}
+		for(var s : sessions) {
+			s.unlock(); //never dropped
+		}
+		assertEquals(sessions.length, completed.get());
+		assertTrue(handlers.get(0).getDropped() > 0);
+		latch.countDown();
+	}
+
+	@Test
+	void testUnregister() {
+		var latch = new CountDownLatch(1);
+		var count = new AtomicInteger();
+		TraceHandler slow = s-> {
+			try {
+				latch.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			count.incrementAndGet();
+		};
+		register(slow);
+		register(s-> {});
+		var worker = handlers.get(0);
+		for(var i=0; i<5; i++) {
+			emit(new ApiSession());
+		}
+		latch.countDown();
+		assertTrue(unregister(slow));
+		assertEquals(5, count.get()); //drained
+		assertFalse(worker.isAlive());
+		assertEquals(1, handlers.size());
+		assertFalse(unregister(slow));
+	}
+
+	static void awaitHandlers() throws InterruptedException {
+		while(!handlers.stream().allMatch(HandlerWorker::isIdle)) {
+			Thread.sleep(1);
+		}
+	}
 }
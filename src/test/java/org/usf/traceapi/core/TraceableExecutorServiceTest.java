@@ -0,0 +1,36 @@
+package org.usf.traceapi.core;
+
+import static java.lang.Boolean.TRUE;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.usf.traceapi.core.Helper.unsampled;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 
+ * @author u$f
+ *
+ */
+class TraceableExecutorServiceTest {
+	
+	private final TraceableExecutorService es = TraceableExecutorService.wrap(newSingleThreadExecutor());
+	
+	@AfterEach
+	void shutdown() {
+		unsampled.remove();
+		es.shutdownNow();
+	}
+
+	@Test
+	void testSubmit_unsampled() throws Exception {
+		assertNull(es.submit(unsampled::get).get()); //thread created
+		unsampled.set(TRUE);
+		assertEquals(TRUE, es.submit(unsampled::get).get());
+		es.submit(()-> assertEquals(TRUE, unsampled.get())).get();
+		unsampled.remove();
+		assertNull(es.submit(unsampled::get).get()); //not leaked
+	}
+}